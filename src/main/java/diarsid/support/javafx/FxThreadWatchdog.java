@@ -0,0 +1,238 @@
+package diarsid.support.javafx;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.application.Platform;
+import javafx.scene.Scene;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import diarsid.support.concurrency.threads.IncrementThreadsNaming;
+import diarsid.support.concurrency.threads.NamedThreadFactory;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import static diarsid.support.javafx.PlatformActions.doOnFxThread;
+import static diarsid.support.javafx.PlatformActions.isFxThread;
+
+public class FxThreadWatchdog {
+
+    private static final Logger log = LoggerFactory.getLogger(FxThreadWatchdog.class);
+
+    public static final long DEFAULT_PROBE_INTERVAL_MILLIS = 100;
+    public static final long DEFAULT_STALL_THRESHOLD_MILLIS = 250;
+    public static final long PULSE_IDLE_GAP_MILLIS = 500;
+
+    private static final String FX_THREAD_NAME = "JavaFX Application Thread";
+    private static final long NO_PROBE = -1;
+    private static final long NO_PULSE = -1;
+
+    private final class PulseListener implements Runnable {
+
+        private long lastPulseNanos = NO_PULSE;
+
+        @Override
+        public void run() {
+            long now = System.nanoTime();
+            long last = this.lastPulseNanos;
+            this.lastPulseNanos = now;
+
+            if ( last == NO_PULSE ) {
+                return;
+            }
+
+            long interval = now - last;
+
+            if ( interval > MILLISECONDS.toNanos(PULSE_IDLE_GAP_MILLIS) ) {
+                return;
+            }
+
+            FxThreadWatchdog.this.pulseIntervals.record(interval);
+        }
+    }
+
+    private final long probeIntervalNanos;
+    private final long stallThresholdNanos;
+    private final LatencyHistogram runLaterLatencies;
+    private final LatencyHistogram pulseIntervals;
+    private final AtomicLong stalls;
+    private final Runnable probe;
+    private final Map<Scene, Runnable> pulseListenersByScenes;
+    private volatile long probeSubmittedNanos;
+    private volatile boolean isProbeStallReported;
+    private volatile Thread fxThread;
+    private ScheduledExecutorService async;
+    private ScheduledFuture<?> asyncJob;
+
+    public FxThreadWatchdog() {
+        this(DEFAULT_PROBE_INTERVAL_MILLIS, DEFAULT_STALL_THRESHOLD_MILLIS, MILLISECONDS);
+    }
+
+    public FxThreadWatchdog(long probeInterval, long stallThreshold, TimeUnit unit) {
+        this.probeIntervalNanos = unit.toNanos(probeInterval);
+        this.stallThresholdNanos = unit.toNanos(stallThreshold);
+        this.runLaterLatencies = new LatencyHistogram();
+        this.pulseIntervals = new LatencyHistogram();
+        this.stalls = new AtomicLong();
+        this.pulseListenersByScenes = new IdentityHashMap<>();
+        this.probeSubmittedNanos = NO_PROBE;
+        this.isProbeStallReported = false;
+
+        this.probe = () -> {
+            long submitted = this.probeSubmittedNanos;
+            long latency = System.nanoTime() - submitted;
+
+            this.fxThread = Thread.currentThread();
+            this.runLaterLatencies.record(latency);
+
+            if ( this.isProbeStallReported ) {
+                log.warn(format("FX thread was stalled for %s ms", NANOSECONDS.toMillis(latency)));
+            }
+
+            this.isProbeStallReported = false;
+            this.probeSubmittedNanos = NO_PROBE;
+        };
+    }
+
+    public synchronized void start() {
+        if ( nonNull(this.asyncJob) ) {
+            return;
+        }
+
+        if ( isNull(this.fxThread) ) {
+            this.fxThread = findFxThread();
+        }
+
+        this.async = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(new IncrementThreadsNaming(
+                FxThreadWatchdog.class.getSimpleName())));
+        this.asyncJob = this.async.scheduleAtFixedRate(
+                this::check, this.probeIntervalNanos, this.probeIntervalNanos, NANOSECONDS);
+    }
+
+    public synchronized void stop() {
+        if ( isNull(this.asyncJob) ) {
+            return;
+        }
+
+        this.asyncJob.cancel(false);
+        this.asyncJob = null;
+        this.async.shutdown();
+        this.async = null;
+    }
+
+    public synchronized boolean isStarted() {
+        return nonNull(this.asyncJob);
+    }
+
+    /*
+     * Opt-in pulse interval measurement. Intervals longer than PULSE_IDLE_GAP_MILLIS
+     * are treated as idle time between pulses and are not recorded.
+     */
+    public void watchPulses(Scene scene) {
+        doOnFxThread(() -> {
+            if ( this.pulseListenersByScenes.containsKey(scene) ) {
+                return;
+            }
+
+            Runnable pulseListener = new PulseListener();
+            this.pulseListenersByScenes.put(scene, pulseListener);
+            scene.addPostLayoutPulseListener(pulseListener);
+        });
+    }
+
+    public void unwatchPulses(Scene scene) {
+        doOnFxThread(() -> {
+            Runnable pulseListener = this.pulseListenersByScenes.remove(scene);
+
+            if ( nonNull(pulseListener) ) {
+                scene.removePostLayoutPulseListener(pulseListener);
+            }
+        });
+    }
+
+    public LatencyHistogram runLaterLatencies() {
+        return this.runLaterLatencies;
+    }
+
+    public LatencyHistogram pulseIntervals() {
+        return this.pulseIntervals;
+    }
+
+    public long stallsCount() {
+        return this.stalls.get();
+    }
+
+    public void dump() {
+        log.info("runLater latency: " + this.runLaterLatencies.dump(TimeUnit.MICROSECONDS));
+        log.info("pulse intervals: " + this.pulseIntervals.dump(TimeUnit.MICROSECONDS));
+        log.info("stalls: " + this.stalls.get());
+    }
+
+    private void check() {
+        try {
+            long submitted = this.probeSubmittedNanos;
+
+            if ( submitted == NO_PROBE ) {
+                this.probeSubmittedNanos = System.nanoTime();
+                Platform.runLater(this.probe);
+                return;
+            }
+
+            long waiting = System.nanoTime() - submitted;
+
+            if ( waiting < this.stallThresholdNanos || this.isProbeStallReported ) {
+                return;
+            }
+
+            this.isProbeStallReported = true;
+            this.stalls.incrementAndGet();
+            this.reportStall(waiting);
+        }
+        catch (Throwable t) {
+            log.error(t.getMessage(), t);
+        }
+    }
+
+    private void reportStall(long waitingNanos) {
+        Thread fxThread = this.fxThread;
+
+        StringBuilder report = new StringBuilder(format(
+                "FX thread has not processed runLater for %s ms", NANOSECONDS.toMillis(waitingNanos)));
+
+        if ( nonNull(fxThread) ) {
+            for ( StackTraceElement element : fxThread.getStackTrace() ) {
+                report.append(System.lineSeparator()).append("    at ").append(element);
+            }
+        }
+
+        log.warn(report.toString());
+    }
+
+    /*
+     * Looked up by name rather than through a runLater hop, because the FX thread
+     * can already be stalled when the watchdog starts.
+     */
+    private static Thread findFxThread() {
+        if ( isFxThread() ) {
+            return Thread.currentThread();
+        }
+
+        for ( Thread thread : Thread.getAllStackTraces().keySet() ) {
+            if ( FX_THREAD_NAME.equals(thread.getName()) ) {
+                return thread;
+            }
+        }
+
+        return null;
+    }
+}
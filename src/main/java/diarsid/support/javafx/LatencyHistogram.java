@@ -0,0 +1,136 @@
+package diarsid.support.javafx;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.lang.String.format;
+
+/*
+ * Log-linear histogram of nanosecond latencies in the manner of HdrHistogram:
+ * every power-of-two range is split into 16 linear sub-buckets, which keeps the
+ * relative error of reported values within ~6% at a fixed memory cost.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong total;
+    private final AtomicLong sum;
+    private final AtomicLong max;
+
+    public LatencyHistogram() {
+        this.counts = new AtomicLongArray(BUCKETS);
+        this.total = new AtomicLong();
+        this.sum = new AtomicLong();
+        this.max = new AtomicLong();
+    }
+
+    public void record(long nanos) {
+        if ( nanos < 0 ) {
+            nanos = 0;
+        }
+
+        this.counts.incrementAndGet(indexOf(nanos));
+        this.total.incrementAndGet();
+        this.sum.addAndGet(nanos);
+        this.max.accumulateAndGet(nanos, Math::max);
+    }
+
+    public long count() {
+        return this.total.get();
+    }
+
+    public long max(TimeUnit unit) {
+        return unit.convert(this.max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long mean(TimeUnit unit) {
+        long count = this.total.get();
+
+        if ( count == 0 ) {
+            return 0;
+        }
+
+        return unit.convert(this.sum.get() / count, TimeUnit.NANOSECONDS);
+    }
+
+    public long percentile(double percentile, TimeUnit unit) {
+        if ( percentile < 0 || percentile > 100 ) {
+            throw new IllegalArgumentException(format("percentile cannot be %s!", percentile));
+        }
+
+        long count = this.total.get();
+
+        if ( count == 0 ) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            seen += this.counts.get(i);
+            if ( seen >= rank ) {
+                return unit.convert(Math.min(upperBoundOf(i), this.max.get()), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        return unit.convert(this.max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public void reset() {
+        for ( int i = 0; i < BUCKETS; i++ ) {
+            this.counts.set(i, 0);
+        }
+
+        this.total.set(0);
+        this.sum.set(0);
+        this.max.set(0);
+    }
+
+    public String dump(TimeUnit unit) {
+        return format(
+                "count=%s mean=%s p50=%s p90=%s p99=%s p99.9=%s max=%s (%s)",
+                this.count(),
+                this.mean(unit),
+                this.percentile(50, unit),
+                this.percentile(90, unit),
+                this.percentile(99, unit),
+                this.percentile(99.9, unit),
+                this.max(unit),
+                unit.name().toLowerCase());
+    }
+
+    @Override
+    public String toString() {
+        return this.dump(TimeUnit.MICROSECONDS);
+    }
+
+    static int indexOf(long value) {
+        if ( value < SUB_BUCKETS ) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int index) {
+        if ( index < SUB_BUCKETS ) {
+            return index;
+        }
+
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long lowerBound = ((long) (SUB_BUCKETS + subBucket)) << shift;
+
+        return lowerBound + (1L << shift) - 1;
+    }
+}
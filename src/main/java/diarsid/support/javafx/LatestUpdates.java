@@ -0,0 +1,137 @@
+package diarsid.support.javafx;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/*
+ * Keys are drained in the order they were first submitted. A newer update for a
+ * pending key replaces the update but keeps the key at its place in the order.
+ * Draining is done once per pulse, only while there are pending updates.
+ */
+public class LatestUpdates {
+
+    private static final Logger log = LoggerFactory.getLogger(LatestUpdates.class);
+
+    private final Map<Object, Runnable> pendingByKeys;
+    private final Queue<Object> pendingKeys;
+    private final AnimationTimer pulses;
+    private final AtomicBoolean isDrainScheduled;
+    private final AtomicLong submitted;
+    private final AtomicLong dropped;
+    private final AtomicLong executed;
+    private final AtomicLong drains;
+
+    public LatestUpdates() {
+        this.pendingByKeys = new ConcurrentHashMap<>();
+        this.pendingKeys = new ConcurrentLinkedQueue<>();
+        this.pulses = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                LatestUpdates.this.onPulse();
+            }
+        };
+        this.isDrainScheduled = new AtomicBoolean(false);
+        this.submitted = new AtomicLong();
+        this.dropped = new AtomicLong();
+        this.executed = new AtomicLong();
+        this.drains = new AtomicLong();
+    }
+
+    public void submit(Object key, Runnable update) {
+        this.submitted.incrementAndGet();
+
+        Runnable replaced = this.pendingByKeys.put(key, update);
+
+        if ( nonNull(replaced) ) {
+            this.dropped.incrementAndGet();
+        }
+        else {
+            this.pendingKeys.offer(key);
+        }
+
+        if ( this.isDrainScheduled.compareAndSet(false, true) ) {
+            if ( Platform.isFxApplicationThread() ) {
+                this.pulses.start();
+            }
+            else {
+                Platform.runLater(this.pulses::start);
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return this.pendingByKeys.size();
+    }
+
+    public long submittedCount() {
+        return this.submitted.get();
+    }
+
+    public long droppedCount() {
+        return this.dropped.get();
+    }
+
+    public long executedCount() {
+        return this.executed.get();
+    }
+
+    public long drainsCount() {
+        return this.drains.get();
+    }
+
+    private void onPulse() {
+        this.drain();
+
+        if ( ! this.pendingKeys.isEmpty() ) {
+            return;
+        }
+
+        this.pulses.stop();
+        this.isDrainScheduled.set(false);
+
+        if ( ! this.pendingKeys.isEmpty() && this.isDrainScheduled.compareAndSet(false, true) ) {
+            this.pulses.start();
+        }
+    }
+
+    /*
+     * Drains only the keys pending at the start of the pulse - updates submitted by
+     * the drained updates themselves wait for the next pulse.
+     */
+    private void drain() {
+        this.drains.incrementAndGet();
+
+        int pending = this.pendingByKeys.size();
+        Object key;
+
+        while ( pending > 0 && (key = this.pendingKeys.poll()) != null ) {
+            pending--;
+            Runnable update = this.pendingByKeys.remove(key);
+
+            if ( isNull(update) ) {
+                continue;
+            }
+
+            try {
+                update.run();
+            }
+            catch (Throwable t) {
+                log.error(t.getMessage(), t);
+            }
+
+            this.executed.incrementAndGet();
+        }
+    }
+}
@@ -1,20 +1,174 @@
 package diarsid.support.javafx;
 
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
 import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+
+import diarsid.support.concurrency.threads.IncrementThreadsNaming;
+import diarsid.support.concurrency.threads.NamedThreadFactory;
+import diarsid.support.javafx.components.Visible;
+
+import static java.util.Objects.isNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 public class PlatformActions {
 
+    public static final String HEADLESS_PROPERTY = "diarsid.support.javafx.headless";
+    public static final int BUILD_THREADS = 2;
+    public static final long BUILD_THREADS_KEEP_ALIVE_SECONDS = 30;
+
+    private final static String FX_THREAD_NAME = "JavaFX Application Thread";
+    private final static String MONOCLE_PLATFORM_CLASS = "com.sun.glass.ui.monocle.MonoclePlatformFactory";
+    private final static Object STARTUP_LOCK = new Object();
     private final static CountDownLatch PLATFORM_STARTUP_LOCK = new CountDownLatch(1);
+    private final static FxThreadWatchdog WATCHDOG = new FxThreadWatchdog();
+    private final static LatencyHistogram BUILD_TIMES = new LatencyHistogram();
+    private final static LatencyHistogram ATTACH_TIMES = new LatencyHistogram();
+    private final static LatencyHistogram CSS_AND_LAYOUT_TIMES = new LatencyHistogram();
+    private static volatile boolean isStartupDone = false;
+    private static volatile Thread fxThread = null;
+
+    private static final class LatestUpdatesHolder {
+
+        private static final LatestUpdates LATEST_UPDATES = new LatestUpdates();
+    }
+
+    private static final class SlicedJobsHolder {
+
+        private static final SlicedJobs SLICED_JOBS = new SlicedJobs();
+    }
+
+    private static final class BuildExecutorHolder {
+
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    BUILD_THREADS,
+                    BUILD_THREADS,
+                    BUILD_THREADS_KEEP_ALIVE_SECONDS,
+                    SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory(new IncrementThreadsNaming(PlatformActions.class.getSimpleName() + ".build")));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
+    public static void startup() {
+        startup(Boolean.getBoolean(HEADLESS_PROPERTY));
+    }
+
+    public static void startupHeadless() {
+        startup(true);
+    }
+
+    /*
+     * Idempotent. Returns once the toolkit accepts runLater calls. If the toolkit has
+     * already been started elsewhere, e.g. through Application.launch, it is detected
+     * and used as is. If the startup fails, the failure is rethrown and the next call
+     * tries again.
+     *
+     * No Platform method is called before Platform.startup - most of them initialize the
+     * toolkit, which reads prism and glass properties, so the headless properties have
+     * to be set before.
+     */
+    private static void startup(boolean headless) {
+        if ( isStartupDone ) {
+            return;
+        }
+
+        synchronized ( STARTUP_LOCK ) {
+            if ( isStartupDone ) {
+                return;
+            }
+
+            if ( isFxThread() ) {
+                fxThread = Thread.currentThread();
+                PLATFORM_STARTUP_LOCK.countDown();
+                isStartupDone = true;
+                return;
+            }
+
+            if ( headless ) {
+                requireMonocle();
+                setPropertyIfAbsent("glass.platform", "Monocle");
+                setPropertyIfAbsent("monocle.platform", "Headless");
+                setPropertyIfAbsent("prism.order", "sw");
+                setPropertyIfAbsent("java.awt.headless", "true");
+            }
 
-    static {
-        Platform.startup(PLATFORM_STARTUP_LOCK::countDown);
+            try {
+                Platform.startup(() -> {
+                    fxThread = Thread.currentThread();
+                    PLATFORM_STARTUP_LOCK.countDown();
+                });
+            }
+            catch (IllegalStateException alreadyStarted) {
+                Platform.runLater(() -> fxThread = Thread.currentThread());
+                PLATFORM_STARTUP_LOCK.countDown();
+            }
+
+            isStartupDone = true;
+        }
+    }
+
+    /*
+     * Does not touch the toolkit. Until the FX thread is captured by startup it is
+     * recognized by the name the toolkit gives it.
+     */
+    public static boolean isFxThread() {
+        Thread current = Thread.currentThread();
+        Thread fxThreadNow = fxThread;
+
+        if ( isNull(fxThreadNow) ) {
+            return FX_THREAD_NAME.equals(current.getName());
+        }
+
+        return fxThreadNow == current;
+    }
+
+    /*
+     * Monocle is not a dependency of this library - it has to be provided by the
+     * application, e.g. as a test-scoped org.testfx:openjfx-monocle. Without it the
+     * toolkit would fail later with an obscure glass platform error.
+     */
+    private static void requireMonocle() {
+        try {
+            Class.forName(MONOCLE_PLATFORM_CLASS, false, PlatformActions.class.getClassLoader());
+        }
+        catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "Headless JavaFX startup requires Monocle on the class or module path: " +
+                    MONOCLE_PLATFORM_CLASS + " is not found. Add org.testfx:openjfx-monocle " +
+                    "matching the JavaFX version or start the toolkit without " + HEADLESS_PROPERTY);
+        }
+    }
+
+    private static void setPropertyIfAbsent(String property, String value) {
+        if ( isNull(System.getProperty(property)) ) {
+            System.setProperty(property, value);
+        }
+    }
+
+    public static boolean isStarted() {
+        return PLATFORM_STARTUP_LOCK.getCount() == 0;
     }
 
     public static void awaitStartup() {
+        startup();
+
         if ( PLATFORM_STARTUP_LOCK.getCount() > 0 ) {
             try {
                 PLATFORM_STARTUP_LOCK.await();
@@ -26,6 +180,10 @@ public class PlatformActions {
     }
 
     public static <T> T doGet(Supplier<T> supplier) {
+        if ( isFxThread() ) {
+            return supplier.get();
+        }
+
         PlatformActions.awaitStartup();
 
         AtomicReference<T> tRef = new AtomicReference<>();
@@ -45,4 +203,141 @@ public class PlatformActions {
 
         return tRef.get();
     }
+
+    public static <T> CompletableFuture<T> doAsync(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+
+        if ( isFxThread() ) {
+            complete(future, supplier);
+        }
+        else {
+            startup();
+            Platform.runLater(() -> complete(future, supplier));
+        }
+
+        return future;
+    }
+
+    /*
+     * Runs the action right away on the FX thread, otherwise submits it with runLater.
+     */
+    public static void doOnFxThread(Runnable action) {
+        if ( isFxThread() ) {
+            action.run();
+        }
+        else {
+            startup();
+            Platform.runLater(action);
+        }
+    }
+
+    public static <T> CompletableFuture<T> doAsync(Supplier<T> supplier, long timeout, TimeUnit unit) {
+        return doAsync(supplier).orTimeout(timeout, unit);
+    }
+
+    public static void doLatest(Object key, Runnable update) {
+        startup();
+        LatestUpdatesHolder.LATEST_UPDATES.submit(key, update);
+    }
+
+    public static LatestUpdates latestUpdates() {
+        startup();
+        return LatestUpdatesHolder.LATEST_UPDATES;
+    }
+
+    public static CompletableFuture<Void> doSliced(Iterator<Runnable> steps) {
+        return doSliced(SlicedJobs.Lane.BACKGROUND, steps);
+    }
+
+    public static CompletableFuture<Void> doSliced(SlicedJobs.Lane lane, Iterator<Runnable> steps) {
+        startup();
+        return SlicedJobsHolder.SLICED_JOBS.submit(lane, steps);
+    }
+
+    public static SlicedJobs slicedJobs() {
+        startup();
+        return SlicedJobsHolder.SLICED_JOBS;
+    }
+
+    public static FxThreadWatchdog startWatchdog() {
+        startup();
+        WATCHDOG.start();
+        return WATCHDOG;
+    }
+
+    public static void stopWatchdog() {
+        WATCHDOG.stop();
+    }
+
+    public static FxThreadWatchdog watchdog() {
+        return WATCHDOG;
+    }
+
+    /*
+     * Builds a detached node tree on a background thread, then attaches it in a single
+     * FX thread hop followed by CSS and layout passes. Only node construction is moved
+     * off the FX thread: attach, CSS and layout still run on it, because CSS needs the
+     * node to be in a Scene, which is FX-thread-only. The time of each part is recorded
+     * separately in buildTimes(), attachTimes() and cssAndLayoutTimes().
+     */
+    public static <N extends Node> CompletableFuture<N> doBuild(Supplier<N> build, Consumer<N> attach) {
+        return buildThenAttach(build, node -> node, attach);
+    }
+
+    public static <V extends Visible> CompletableFuture<V> doBuildVisible(Supplier<V> build, Consumer<V> attach) {
+        return buildThenAttach(build, Visible::node, attach);
+    }
+
+    private static <T> CompletableFuture<T> buildThenAttach(Supplier<T> build, Function<T, Node> nodeOf, Consumer<T> attach) {
+        startup();
+
+        return CompletableFuture
+                .supplyAsync(() -> {
+                    long start = System.nanoTime();
+                    T built = build.get();
+                    BUILD_TIMES.record(System.nanoTime() - start);
+                    return built;
+                }, BuildExecutorHolder.EXECUTOR)
+                .thenCompose(built -> doAsync(() -> {
+                    long start = System.nanoTime();
+                    attach.accept(built);
+                    long attached = System.nanoTime();
+
+                    Node node = nodeOf.apply(built);
+                    node.applyCss();
+                    if ( node instanceof Parent ) {
+                        ((Parent) node).layout();
+                    }
+
+                    ATTACH_TIMES.record(attached - start);
+                    CSS_AND_LAYOUT_TIMES.record(System.nanoTime() - attached);
+
+                    return built;
+                }));
+    }
+
+    public static LatencyHistogram buildTimes() {
+        return BUILD_TIMES;
+    }
+
+    public static LatencyHistogram attachTimes() {
+        return ATTACH_TIMES;
+    }
+
+    public static LatencyHistogram cssAndLayoutTimes() {
+        return CSS_AND_LAYOUT_TIMES;
+    }
+
+    private static <T> void complete(CompletableFuture<T> future, Supplier<T> supplier) {
+        if ( future.isDone() ) {
+            return;
+        }
+
+        try {
+            future.complete(supplier.get());
+        }
+        catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
 }
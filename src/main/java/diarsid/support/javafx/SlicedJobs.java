@@ -0,0 +1,170 @@
+package diarsid.support.javafx;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import diarsid.support.objects.CommonEnum;
+
+import static java.lang.String.format;
+import static java.util.Objects.isNull;
+
+import static diarsid.support.javafx.SlicedJobs.Lane.INTERACTIVE;
+
+public class SlicedJobs {
+
+    private static final Logger log = LoggerFactory.getLogger(SlicedJobs.class);
+
+    public static final long DEFAULT_BUDGET_MILLIS = 4;
+
+    public static enum Lane implements CommonEnum<Lane> {
+        INTERACTIVE,
+        BACKGROUND
+    }
+
+    private static final class Job {
+
+        final Iterator<Runnable> steps;
+        final CompletableFuture<Void> completion;
+
+        Job(Iterator<Runnable> steps) {
+            this.steps = steps;
+            this.completion = new CompletableFuture<>();
+        }
+    }
+
+    private final long budgetNanos;
+    private final Deque<Job> interactiveJobs;
+    private final Deque<Job> backgroundJobs;
+    private final AnimationTimer pulses;
+    private final AtomicLong executedSteps;
+    private final AtomicLong overBudgetPulses;
+    private boolean isRunning;
+
+    public SlicedJobs() {
+        this(DEFAULT_BUDGET_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    public SlicedJobs(long budget, TimeUnit unit) {
+        if ( budget <= 0 ) {
+            throw new IllegalArgumentException(format("pulse budget cannot be %s!", budget));
+        }
+
+        this.budgetNanos = unit.toNanos(budget);
+        this.interactiveJobs = new ArrayDeque<>();
+        this.backgroundJobs = new ArrayDeque<>();
+        this.executedSteps = new AtomicLong();
+        this.overBudgetPulses = new AtomicLong();
+        this.isRunning = false;
+        this.pulses = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                SlicedJobs.this.runSlice();
+            }
+        };
+    }
+
+    public CompletableFuture<Void> submit(Lane lane, Iterator<Runnable> steps) {
+        Job job = new Job(steps);
+
+        if ( Platform.isFxApplicationThread() ) {
+            this.enqueue(lane, job);
+        }
+        else {
+            Platform.runLater(() -> this.enqueue(lane, job));
+        }
+
+        return job.completion;
+    }
+
+    public long budget(TimeUnit unit) {
+        return unit.convert(this.budgetNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public long executedStepsCount() {
+        return this.executedSteps.get();
+    }
+
+    public long overBudgetPulsesCount() {
+        return this.overBudgetPulses.get();
+    }
+
+    private void enqueue(Lane lane, Job job) {
+        if ( lane.is(INTERACTIVE) ) {
+            this.interactiveJobs.addLast(job);
+        }
+        else {
+            this.backgroundJobs.addLast(job);
+        }
+
+        if ( ! this.isRunning ) {
+            this.isRunning = true;
+            this.pulses.start();
+        }
+    }
+
+    /*
+     * Runs steps until the pulse budget is spent, at least one step per pulse.
+     * The interactive lane is checked before every step, so interactive work
+     * submitted by input handlers preempts background work at the next step.
+     */
+    private void runSlice() {
+        long deadline = System.nanoTime() + this.budgetNanos;
+        long now;
+
+        do {
+            Job job = this.interactiveJobs.peekFirst();
+            Deque<Job> lane = this.interactiveJobs;
+
+            if ( isNull(job) ) {
+                job = this.backgroundJobs.peekFirst();
+                lane = this.backgroundJobs;
+            }
+
+            if ( isNull(job) ) {
+                this.isRunning = false;
+                this.pulses.stop();
+                return;
+            }
+
+            this.runStep(lane, job);
+            now = System.nanoTime();
+        }
+        while ( now < deadline );
+
+        if ( now - deadline > this.budgetNanos ) {
+            this.overBudgetPulses.incrementAndGet();
+        }
+    }
+
+    private void runStep(Deque<Job> lane, Job job) {
+        try {
+            if ( job.completion.isCancelled() || ! job.steps.hasNext() ) {
+                lane.pollFirst();
+                job.completion.complete(null);
+                return;
+            }
+
+            job.steps.next().run();
+            this.executedSteps.incrementAndGet();
+
+            if ( ! job.steps.hasNext() ) {
+                lane.pollFirst();
+                job.completion.complete(null);
+            }
+        }
+        catch (Throwable t) {
+            log.error(t.getMessage(), t);
+            lane.pollFirst();
+            job.completion.completeExceptionally(t);
+        }
+    }
+}
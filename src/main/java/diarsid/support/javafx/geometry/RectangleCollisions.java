@@ -0,0 +1,81 @@
+package diarsid.support.javafx.geometry;
+
+import diarsid.desktop.ui.geometry.Rectangle;
+
+public final class RectangleCollisions {
+
+    public static final int NONE = 0;
+    public static final int TOP = 1;
+    public static final int BOTTOM = 1 << 1;
+    public static final int LEFT = 1 << 2;
+    public static final int RIGHT = 1 << 3;
+    public static final int VERTICAL = TOP | BOTTOM;
+    public static final int HORIZONTAL = LEFT | RIGHT;
+
+    private RectangleCollisions() {}
+
+    public static int collisionsOf(Rectangle bounds, double x, double y, double width, double height) {
+        return collisionsOf(
+                bounds.anchor().x(),
+                bounds.anchor().y(),
+                bounds.oppositeAnchorX(),
+                bounds.oppositeAnchorY(),
+                x, y, width, height);
+    }
+
+    public static int collisionsOf(
+            double boundsMinX, double boundsMinY, double boundsMaxX, double boundsMaxY,
+            double x, double y, double width, double height) {
+        int collisions = NONE;
+
+        if ( y < boundsMinY ) {
+            collisions |= TOP;
+        }
+
+        if ( y + height > boundsMaxY ) {
+            collisions |= BOTTOM;
+        }
+
+        if ( x < boundsMinX ) {
+            collisions |= LEFT;
+        }
+
+        if ( x + width > boundsMaxX ) {
+            collisions |= RIGHT;
+        }
+
+        return collisions;
+    }
+
+    public static boolean isAny(int collisions, int sides) {
+        return (collisions & sides) != NONE;
+    }
+
+    public static boolean isNone(int collisions) {
+        return collisions == NONE;
+    }
+
+    public static double clampedX(Rectangle bounds, double x, double width) {
+        return clamped(bounds.anchor().x(), bounds.oppositeAnchorX(), x, width);
+    }
+
+    public static double clampedY(Rectangle bounds, double y, double height) {
+        return clamped(bounds.anchor().y(), bounds.oppositeAnchorY(), y, height);
+    }
+
+    /*
+     * A length that does not fit into the bounds is always pinned to boundsMin,
+     * i.e. to the top or left edge, wherever it is positioned.
+     */
+    public static double clamped(double boundsMin, double boundsMax, double position, double length) {
+        if ( position < boundsMin || length > boundsMax - boundsMin ) {
+            return boundsMin;
+        }
+        else if ( position + length > boundsMax ) {
+            return boundsMax - length;
+        }
+        else {
+            return position;
+        }
+    }
+}
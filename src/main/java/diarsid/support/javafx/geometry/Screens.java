@@ -0,0 +1,345 @@
+package diarsid.support.javafx.geometry;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import javafx.application.Platform;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.geometry.Rectangle2D;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import diarsid.desktop.ui.geometry.Rectangle;
+import diarsid.support.javafx.PlatformActions;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Objects.isNull;
+
+import static diarsid.support.javafx.geometry.Screen.Type.PHYSICAL;
+import static diarsid.support.javafx.geometry.Screen.Type.SYSTEM;
+
+public final class Screens {
+
+    private static final Logger log = LoggerFactory.getLogger(Screens.class);
+
+    public static final int NO_SCREEN = -1;
+
+    public static final class Monitor {
+
+        public final int index;
+        public final boolean isPrimary;
+        public final Screen physical;
+        public final Screen system;
+        public final double outputScaleX;
+        public final double outputScaleY;
+
+        private Monitor(int index, javafx.stage.Screen fxScreen, boolean isPrimary) {
+            this.index = index;
+            this.isPrimary = isPrimary;
+            this.physical = Screen.of(PHYSICAL, fxScreen.getBounds());
+            this.system = Screen.of(SYSTEM, fxScreen.getVisualBounds());
+            this.outputScaleX = fxScreen.getOutputScaleX();
+            this.outputScaleY = fxScreen.getOutputScaleY();
+        }
+
+        public Screen screenOf(Screen.Type type) {
+            switch ( type ) {
+                case PHYSICAL:
+                    return this.physical;
+                case SYSTEM:
+                    return this.system;
+                default:
+                    throw type.unsupported();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Monitor{" +
+                    "index=" + index +
+                    ", isPrimary=" + isPrimary +
+                    ", x=" + physical.anchor().x() +
+                    ", y=" + physical.anchor().y() +
+                    ", width=" + physical.width() +
+                    ", height=" + physical.height() +
+                    ", outputScaleX=" + outputScaleX +
+                    ", outputScaleY=" + outputScaleY +
+                    '}';
+        }
+    }
+
+    private static final class Index {
+
+        final List<Monitor> monitors;
+        final Monitor primary;
+        final double[] xEdges;
+        final double[] yEdges;
+        final int[] monitorIndexesByCells;
+        final int columns;
+
+        Index(List<javafx.stage.Screen> fxScreens, javafx.stage.Screen fxPrimary) {
+            List<Monitor> monitors = new ArrayList<>();
+            Monitor primary = null;
+            for ( int i = 0; i < fxScreens.size(); i++ ) {
+                javafx.stage.Screen fxScreen = fxScreens.get(i);
+                Monitor monitor = new Monitor(i, fxScreen, fxScreen.equals(fxPrimary));
+                monitors.add(monitor);
+                if ( monitor.isPrimary ) {
+                    primary = monitor;
+                }
+            }
+
+            this.monitors = unmodifiableList(monitors);
+            this.primary = primary;
+
+            int screensCount = fxScreens.size();
+            double[] xs = new double[screensCount * 2];
+            double[] ys = new double[screensCount * 2];
+            for ( int i = 0; i < screensCount; i++ ) {
+                Rectangle2D bounds = fxScreens.get(i).getBounds();
+                xs[i * 2] = bounds.getMinX();
+                xs[i * 2 + 1] = bounds.getMaxX();
+                ys[i * 2] = bounds.getMinY();
+                ys[i * 2 + 1] = bounds.getMaxY();
+            }
+
+            this.xEdges = sortedDistinct(xs);
+            this.yEdges = sortedDistinct(ys);
+            this.columns = Math.max(this.xEdges.length - 1, 0);
+            int rows = Math.max(this.yEdges.length - 1, 0);
+
+            this.monitorIndexesByCells = new int[this.columns * rows];
+            for ( int row = 0; row < rows; row++ ) {
+                double cellCenterY = (this.yEdges[row] + this.yEdges[row + 1]) / 2;
+                for ( int column = 0; column < this.columns; column++ ) {
+                    double cellCenterX = (this.xEdges[column] + this.xEdges[column + 1]) / 2;
+                    int monitorIndex = NO_SCREEN;
+                    for ( int i = 0; i < screensCount; i++ ) {
+                        if ( fxScreens.get(i).getBounds().contains(cellCenterX, cellCenterY) ) {
+                            monitorIndex = i;
+                            break;
+                        }
+                    }
+                    this.monitorIndexesByCells[row * this.columns + column] = monitorIndex;
+                }
+            }
+        }
+
+        int indexAt(double x, double y) {
+            int column = cellOf(this.xEdges, x);
+            if ( column < 0 ) {
+                return NO_SCREEN;
+            }
+
+            int row = cellOf(this.yEdges, y);
+            if ( row < 0 ) {
+                return NO_SCREEN;
+            }
+
+            return this.monitorIndexesByCells[row * this.columns + column];
+        }
+
+        List<Monitor> intersecting(double x, double y, double width, double height) {
+            List<Monitor> intersecting = new ArrayList<>();
+
+            if ( this.columns == 0 ) {
+                return intersecting;
+            }
+
+            if ( x + width <= this.xEdges[0] || x >= this.xEdges[this.xEdges.length - 1] ||
+                 y + height <= this.yEdges[0] || y >= this.yEdges[this.yEdges.length - 1] ) {
+                return intersecting;
+            }
+
+            int firstColumn = cellOf(this.xEdges, clamp(x, this.xEdges));
+            int lastColumn = cellOf(this.xEdges, clamp(Math.nextDown(x + width), this.xEdges));
+            int firstRow = cellOf(this.yEdges, clamp(y, this.yEdges));
+            int lastRow = cellOf(this.yEdges, clamp(Math.nextDown(y + height), this.yEdges));
+
+            boolean[] added = new boolean[this.monitors.size()];
+            for ( int row = firstRow; row <= lastRow; row++ ) {
+                for ( int column = firstColumn; column <= lastColumn; column++ ) {
+                    int monitorIndex = this.monitorIndexesByCells[row * this.columns + column];
+                    if ( monitorIndex != NO_SCREEN && ! added[monitorIndex] ) {
+                        added[monitorIndex] = true;
+                        intersecting.add(this.monitors.get(monitorIndex));
+                    }
+                }
+            }
+
+            return intersecting;
+        }
+
+        private static int cellOf(double[] edges, double value) {
+            if ( edges.length < 2 ) {
+                return -1;
+            }
+
+            int found = Arrays.binarySearch(edges, value);
+            int cell;
+            if ( found >= 0 ) {
+                cell = found;
+            }
+            else {
+                cell = -found - 2;
+            }
+
+            if ( cell < 0 || cell >= edges.length - 1 ) {
+                return -1;
+            }
+
+            return cell;
+        }
+
+        private static double clamp(double value, double[] edges) {
+            if ( edges.length < 2 ) {
+                return value;
+            }
+
+            double min = edges[0];
+            double max = Math.nextDown(edges[edges.length - 1]);
+
+            if ( value < min ) {
+                return min;
+            }
+            else if ( value > max ) {
+                return max;
+            }
+            else {
+                return value;
+            }
+        }
+
+        private static double[] sortedDistinct(double[] values) {
+            double[] sorted = values.clone();
+            Arrays.sort(sorted);
+
+            int distinct = 0;
+            for ( int i = 0; i < sorted.length; i++ ) {
+                if ( i == 0 || sorted[i] != sorted[distinct - 1] ) {
+                    sorted[distinct] = sorted[i];
+                    distinct++;
+                }
+            }
+
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+
+    private static final Object LOCK = new Object();
+    private static volatile Index index;
+    private static volatile Runnable[] changeListeners = new Runnable[0];
+
+    private Screens() {}
+
+    public static List<Monitor> all() {
+        return index().monitors;
+    }
+
+    public static Monitor primary() {
+        return index().primary;
+    }
+
+    public static int screenIndexAt(double x, double y) {
+        return index().indexAt(x, y);
+    }
+
+    public static Monitor screen(int screenIndex) {
+        return index().monitors.get(screenIndex);
+    }
+
+    public static Optional<Monitor> screenAt(double x, double y) {
+        Index indexNow = index();
+        int screenIndex = indexNow.indexAt(x, y);
+
+        if ( screenIndex == NO_SCREEN ) {
+            return Optional.empty();
+        }
+
+        return Optional.of(indexNow.monitors.get(screenIndex));
+    }
+
+    public static List<Monitor> screensIntersecting(double x, double y, double width, double height) {
+        return index().intersecting(x, y, width, height);
+    }
+
+    public static List<Monitor> screensIntersecting(Rectangle rectangle) {
+        return index().intersecting(
+                rectangle.anchor().x(),
+                rectangle.anchor().y(),
+                rectangle.width(),
+                rectangle.height());
+    }
+
+    public static void onChange(Runnable listener) {
+        synchronized ( LOCK ) {
+            Runnable[] listeners = Arrays.copyOf(changeListeners, changeListeners.length + 1);
+            listeners[changeListeners.length] = listener;
+            changeListeners = listeners;
+        }
+    }
+
+    public static void removeOnChange(Runnable listener) {
+        synchronized ( LOCK ) {
+            Runnable[] listeners = new Runnable[changeListeners.length];
+            int count = 0;
+            for ( Runnable existing : changeListeners ) {
+                if ( existing != listener ) {
+                    listeners[count] = existing;
+                    count++;
+                }
+            }
+            changeListeners = Arrays.copyOf(listeners, count);
+        }
+    }
+
+    private static Index index() {
+        Index indexNow = index;
+
+        if ( isNull(indexNow) ) {
+            if ( Platform.isFxApplicationThread() ) {
+                indexNow = initIndex();
+            }
+            else {
+                indexNow = PlatformActions.doGet(Screens::initIndex);
+            }
+        }
+
+        return indexNow;
+    }
+
+    private static Index initIndex() {
+        synchronized ( LOCK ) {
+            if ( isNull(index) ) {
+                ObservableList<javafx.stage.Screen> fxScreens = javafx.stage.Screen.getScreens();
+                fxScreens.addListener((ListChangeListener<javafx.stage.Screen>) change -> onScreensChanged());
+                rebuildIndex();
+            }
+
+            return index;
+        }
+    }
+
+    private static void onScreensChanged() {
+        rebuildIndex();
+
+        Runnable[] listeners = changeListeners;
+        for ( Runnable listener : listeners ) {
+            try {
+                listener.run();
+            }
+            catch (Exception e) {
+                log.error(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void rebuildIndex() {
+        synchronized ( LOCK ) {
+            index = new Index(javafx.stage.Screen.getScreens(), javafx.stage.Screen.getPrimary());
+        }
+    }
+}
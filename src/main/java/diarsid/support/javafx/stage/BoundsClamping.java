@@ -0,0 +1,67 @@
+package diarsid.support.javafx.stage;
+
+import javafx.geometry.Insets;
+import javafx.stage.Stage;
+
+import diarsid.desktop.ui.geometry.Rectangle;
+import diarsid.support.javafx.geometry.RectangleCollisions;
+
+import static java.lang.Double.isNaN;
+
+import static diarsid.support.javafx.geometry.RectangleCollisions.isNone;
+
+final class BoundsClamping {
+
+    private BoundsClamping() {}
+
+    static int collisionsOf(Rectangle bounds, double stageX, double stageY, double stageWidth, double stageHeight, Insets insets) {
+        return RectangleCollisions.collisionsOf(
+                bounds,
+                stageX + insets.getLeft(),
+                stageY + insets.getTop(),
+                stageWidth - insets.getLeft() - insets.getRight(),
+                stageHeight - insets.getTop() - insets.getBottom());
+    }
+
+    static boolean isInside(Rectangle bounds, double stageX, double stageY, double stageWidth, double stageHeight, Insets insets) {
+        return isNone(collisionsOf(bounds, stageX, stageY, stageWidth, stageHeight, insets));
+    }
+
+    static double clampedX(Rectangle bounds, double stageX, double stageWidth, Insets insets) {
+        double width = stageWidth - insets.getLeft() - insets.getRight();
+        return RectangleCollisions.clampedX(bounds, stageX + insets.getLeft(), width) - insets.getLeft();
+    }
+
+    static double clampedY(Rectangle bounds, double stageY, double stageHeight, Insets insets) {
+        double height = stageHeight - insets.getTop() - insets.getBottom();
+        return RectangleCollisions.clampedY(bounds, stageY + insets.getTop(), height) - insets.getTop();
+    }
+
+    static double widthOf(StageMoving.Move.Changeable stageMove, Stage stage) {
+        double width = stageMove.width();
+        return isNaN(width) ? stage.getWidth() : width;
+    }
+
+    static double heightOf(StageMoving.Move.Changeable stageMove, Stage stage) {
+        double height = stageMove.height();
+        return isNaN(height) ? stage.getHeight() : height;
+    }
+
+    static void clamp(Rectangle bounds, StageMoving.Move.Changeable stageMove, Stage stage, Insets insets) {
+        if ( ! stageMove.isIgnoredX() ) {
+            double stageX = stageMove.finalX();
+            double clampedX = clampedX(bounds, stageX, widthOf(stageMove, stage), insets);
+            if ( clampedX != stageX ) {
+                stageMove.changeX(clampedX);
+            }
+        }
+
+        if ( ! stageMove.isIgnoredY() ) {
+            double stageY = stageMove.finalY();
+            double clampedY = clampedY(bounds, stageY, heightOf(stageMove, stage), insets);
+            if ( clampedY != stageY ) {
+                stageMove.changeY(clampedY);
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package diarsid.support.javafx.stage;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+import static java.lang.Math.abs;
+
+final class EdgeIndex {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private double[] edges;
+    private double[] spansFrom;
+    private double[] spansTo;
+    private Object[] owners;
+    private int size;
+
+    EdgeIndex() {
+        this.edges = new double[INITIAL_CAPACITY];
+        this.spansFrom = new double[INITIAL_CAPACITY];
+        this.spansTo = new double[INITIAL_CAPACITY];
+        this.owners = new Object[INITIAL_CAPACITY];
+        this.size = 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    void add(double edge, double spanFrom, double spanTo, Object owner) {
+        if ( this.size == this.edges.length ) {
+            int capacity = this.size * 2;
+            this.edges = Arrays.copyOf(this.edges, capacity);
+            this.spansFrom = Arrays.copyOf(this.spansFrom, capacity);
+            this.spansTo = Arrays.copyOf(this.spansTo, capacity);
+            this.owners = Arrays.copyOf(this.owners, capacity);
+        }
+
+        int i = this.lowerBound(edge);
+        int tail = this.size - i;
+
+        if ( tail > 0 ) {
+            System.arraycopy(this.edges, i, this.edges, i + 1, tail);
+            System.arraycopy(this.spansFrom, i, this.spansFrom, i + 1, tail);
+            System.arraycopy(this.spansTo, i, this.spansTo, i + 1, tail);
+            System.arraycopy(this.owners, i, this.owners, i + 1, tail);
+        }
+
+        this.edges[i] = edge;
+        this.spansFrom[i] = spanFrom;
+        this.spansTo[i] = spanTo;
+        this.owners[i] = owner;
+        this.size++;
+    }
+
+    void removeAllOf(Object owner) {
+        int kept = 0;
+
+        for ( int i = 0; i < this.size; i++ ) {
+            if ( this.owners[i] == owner ) {
+                continue;
+            }
+
+            if ( kept != i ) {
+                this.edges[kept] = this.edges[i];
+                this.spansFrom[kept] = this.spansFrom[i];
+                this.spansTo[kept] = this.spansTo[i];
+                this.owners[kept] = this.owners[i];
+            }
+
+            kept++;
+        }
+
+        Arrays.fill(this.owners, kept, this.size, null);
+        this.size = kept;
+    }
+
+    /*
+     * Returns the edge closest to the given position within the threshold
+     * whose span overlaps [spanFrom, spanTo], ignoring edges of the excluded
+     * owners, or NaN if there is no such edge.
+     */
+    double nearest(double position, double threshold, double spanFrom, double spanTo, Predicate<Object> isExcluded) {
+        double nearest = Double.NaN;
+        double nearestDistance = Double.MAX_VALUE;
+        double to = position + threshold;
+
+        for ( int i = this.lowerBound(position - threshold); i < this.size && this.edges[i] <= to; i++ ) {
+            if ( isExcluded.test(this.owners[i]) ) {
+                continue;
+            }
+
+            if ( this.spansTo[i] < spanFrom || this.spansFrom[i] > spanTo ) {
+                continue;
+            }
+
+            double distance = abs(this.edges[i] - position);
+            if ( distance < nearestDistance ) {
+                nearestDistance = distance;
+                nearest = this.edges[i];
+            }
+        }
+
+        return nearest;
+    }
+
+    private int lowerBound(double edge) {
+        int low = 0;
+        int high = this.size;
+
+        while ( low < high ) {
+            int middle = (low + high) >>> 1;
+            if ( this.edges[middle] < edge ) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+}
@@ -0,0 +1,243 @@
+package diarsid.support.javafx.stage;
+
+import java.util.Arrays;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/*
+ * Set of maximal free rectangles (MaxRects). Occupying a rectangle splits every
+ * free rectangle it intersects into up to four maximal parts and drops parts
+ * contained in other free rectangles.
+ */
+final class FreeRectangles {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private double[] xs;
+    private double[] ys;
+    private double[] widths;
+    private double[] heights;
+    private int size;
+
+    private double[] nextXs;
+    private double[] nextYs;
+    private double[] nextWidths;
+    private double[] nextHeights;
+    private int nextSize;
+
+    FreeRectangles() {
+        this.xs = new double[INITIAL_CAPACITY];
+        this.ys = new double[INITIAL_CAPACITY];
+        this.widths = new double[INITIAL_CAPACITY];
+        this.heights = new double[INITIAL_CAPACITY];
+        this.size = 0;
+
+        this.nextXs = new double[INITIAL_CAPACITY];
+        this.nextYs = new double[INITIAL_CAPACITY];
+        this.nextWidths = new double[INITIAL_CAPACITY];
+        this.nextHeights = new double[INITIAL_CAPACITY];
+        this.nextSize = 0;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    double x(int i) {
+        return this.xs[i];
+    }
+
+    double y(int i) {
+        return this.ys[i];
+    }
+
+    void reset(double x, double y, double width, double height) {
+        this.size = 0;
+        this.add(x, y, width, height);
+    }
+
+    void clear() {
+        this.size = 0;
+    }
+
+    void addAll(FreeRectangles other) {
+        for ( int i = 0; i < other.size; i++ ) {
+            this.add(other.xs[i], other.ys[i], other.widths[i], other.heights[i]);
+        }
+
+        this.prune();
+    }
+
+    void occupy(double x, double y, double width, double height) {
+        double right = x + width;
+        double bottom = y + height;
+
+        this.nextSize = 0;
+        boolean isSplit = false;
+
+        for ( int i = 0; i < this.size; i++ ) {
+            double freeX = this.xs[i];
+            double freeY = this.ys[i];
+            double freeRight = freeX + this.widths[i];
+            double freeBottom = freeY + this.heights[i];
+
+            if ( x >= freeRight || right <= freeX || y >= freeBottom || bottom <= freeY ) {
+                this.addNext(freeX, freeY, this.widths[i], this.heights[i]);
+                continue;
+            }
+
+            isSplit = true;
+
+            if ( x > freeX ) {
+                this.addNext(freeX, freeY, x - freeX, freeBottom - freeY);
+            }
+
+            if ( right < freeRight ) {
+                this.addNext(right, freeY, freeRight - right, freeBottom - freeY);
+            }
+
+            if ( y > freeY ) {
+                this.addNext(freeX, freeY, freeRight - freeX, y - freeY);
+            }
+
+            if ( bottom < freeBottom ) {
+                this.addNext(freeX, bottom, freeRight - freeX, freeBottom - bottom);
+            }
+        }
+
+        if ( ! isSplit ) {
+            return;
+        }
+
+        this.swap();
+        this.prune();
+    }
+
+    /*
+     * Returns the index of the free rectangle that fits the given size with the
+     * shortest leftover side (best short side fit), or -1 if none fits.
+     */
+    int bestFit(double width, double height) {
+        int best = -1;
+        double bestShortSide = Double.MAX_VALUE;
+        double bestLongSide = Double.MAX_VALUE;
+
+        for ( int i = 0; i < this.size; i++ ) {
+            double leftoverX = this.widths[i] - width;
+            double leftoverY = this.heights[i] - height;
+
+            if ( leftoverX < 0 || leftoverY < 0 ) {
+                continue;
+            }
+
+            double shortSide = min(leftoverX, leftoverY);
+            double longSide = max(leftoverX, leftoverY);
+
+            if ( shortSide < bestShortSide || (shortSide == bestShortSide && longSide < bestLongSide) ) {
+                best = i;
+                bestShortSide = shortSide;
+                bestLongSide = longSide;
+            }
+        }
+
+        return best;
+    }
+
+    private void add(double x, double y, double width, double height) {
+        if ( width <= 0 || height <= 0 ) {
+            return;
+        }
+
+        if ( this.size == this.xs.length ) {
+            int capacity = this.size * 2;
+            this.xs = Arrays.copyOf(this.xs, capacity);
+            this.ys = Arrays.copyOf(this.ys, capacity);
+            this.widths = Arrays.copyOf(this.widths, capacity);
+            this.heights = Arrays.copyOf(this.heights, capacity);
+        }
+
+        this.xs[this.size] = x;
+        this.ys[this.size] = y;
+        this.widths[this.size] = width;
+        this.heights[this.size] = height;
+        this.size++;
+    }
+
+    private void addNext(double x, double y, double width, double height) {
+        if ( width <= 0 || height <= 0 ) {
+            return;
+        }
+
+        if ( this.nextSize == this.nextXs.length ) {
+            int capacity = this.nextSize * 2;
+            this.nextXs = Arrays.copyOf(this.nextXs, capacity);
+            this.nextYs = Arrays.copyOf(this.nextYs, capacity);
+            this.nextWidths = Arrays.copyOf(this.nextWidths, capacity);
+            this.nextHeights = Arrays.copyOf(this.nextHeights, capacity);
+        }
+
+        this.nextXs[this.nextSize] = x;
+        this.nextYs[this.nextSize] = y;
+        this.nextWidths[this.nextSize] = width;
+        this.nextHeights[this.nextSize] = height;
+        this.nextSize++;
+    }
+
+    private void swap() {
+        double[] xs = this.xs;
+        double[] ys = this.ys;
+        double[] widths = this.widths;
+        double[] heights = this.heights;
+
+        this.xs = this.nextXs;
+        this.ys = this.nextYs;
+        this.widths = this.nextWidths;
+        this.heights = this.nextHeights;
+        this.size = this.nextSize;
+
+        this.nextXs = xs;
+        this.nextYs = ys;
+        this.nextWidths = widths;
+        this.nextHeights = heights;
+        this.nextSize = 0;
+    }
+
+    private void prune() {
+        this.nextSize = 0;
+
+        for ( int i = 0; i < this.size; i++ ) {
+            boolean isContained = false;
+
+            for ( int j = 0; j < this.size && ! isContained; j++ ) {
+                if ( i == j ) {
+                    continue;
+                }
+
+                if ( this.contains(j, i) ) {
+                    isContained = ! this.isSame(i, j) || j < i;
+                }
+            }
+
+            if ( ! isContained ) {
+                this.addNext(this.xs[i], this.ys[i], this.widths[i], this.heights[i]);
+            }
+        }
+
+        this.swap();
+    }
+
+    private boolean contains(int outer, int inner) {
+        return this.xs[inner] >= this.xs[outer] &&
+                this.ys[inner] >= this.ys[outer] &&
+                this.xs[inner] + this.widths[inner] <= this.xs[outer] + this.widths[outer] &&
+                this.ys[inner] + this.heights[inner] <= this.ys[outer] + this.heights[outer];
+    }
+
+    private boolean isSame(int i, int j) {
+        return this.xs[i] == this.xs[j] &&
+                this.ys[i] == this.ys[j] &&
+                this.widths[i] == this.widths[j] &&
+                this.heights[i] == this.heights[j];
+    }
+}
@@ -1,9 +1,13 @@
 package diarsid.support.javafx.stage;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.paint.Color;
@@ -11,14 +15,42 @@ import javafx.stage.Stage;
 import javafx.stage.StageStyle;
 
 import static java.lang.Double.MAX_VALUE;
+import static java.lang.String.format;
 import static java.util.Objects.nonNull;
 
 public class HiddenStages {
 
+    public static final int DEFAULT_OWNERS_POOL_SIZE = 1;
+
+    private final int ownersPoolSize;
+    private final List<Stage> hiddenOwners;
     private final Map<Stage, Stage> hiddenStagesForStages;
+    private final ChangeListener<Boolean> showingListener;
+    private int nextOwner;
 
     public HiddenStages() {
+        this(DEFAULT_OWNERS_POOL_SIZE);
+    }
+
+    public HiddenStages(int ownersPoolSize) {
+        if ( ownersPoolSize < 1 ) {
+            throw new IllegalArgumentException(format("owners pool size cannot be %s!", ownersPoolSize));
+        }
+
+        this.ownersPoolSize = ownersPoolSize;
+        this.hiddenOwners = new ArrayList<>();
         this.hiddenStagesForStages = new ConcurrentHashMap<>();
+        this.nextOwner = 0;
+
+        this.showingListener = (property, wasShowing, isShowing) -> {
+            Stage stage = (Stage) ((ReadOnlyProperty<?>) property).getBean();
+            if ( isShowing ) {
+                this.hiddenStagesForStages.put(stage, (Stage) stage.getOwner());
+            }
+            else {
+                this.hiddenStagesForStages.remove(stage);
+            }
+        };
     }
 
     private Stage createHiddenStage() {
@@ -40,25 +72,57 @@ public class HiddenStages {
         return stage;
     }
 
+    private synchronized Stage nextHiddenOwner() {
+        if ( this.hiddenOwners.isEmpty() ) {
+            for ( int i = 0; i < this.ownersPoolSize; i++ ) {
+                this.hiddenOwners.add(this.createHiddenStage());
+            }
+        }
+
+        int ownerIndex = this.nextOwner;
+        this.nextOwner = (this.nextOwner + 1) % this.hiddenOwners.size();
+
+        Stage owner = this.hiddenOwners.get(ownerIndex);
+        if ( ! owner.isShowing() ) {
+            owner = this.createHiddenStage();
+            this.hiddenOwners.set(ownerIndex, owner);
+        }
+
+        return owner;
+    }
+
     public Stage newHiddenStage() {
         Stage newStage = new Stage();
-        Stage newHiddenStage = this.createHiddenStage();
-
-        this.hiddenStagesForStages.put(newStage, newHiddenStage);
+        Stage hiddenOwner = this.nextHiddenOwner();
 
-        newStage.initOwner(newHiddenStage);
+        newStage.initOwner(hiddenOwner);
+        newStage.showingProperty().addListener(this.showingListener);
 
         return newStage;
     }
 
+    public int ownersPoolSize() {
+        return this.ownersPoolSize;
+    }
+
+    public int showingStagesCount() {
+        return this.hiddenStagesForStages.size();
+    }
+
     void closeHidden(Stage stage) {
-        Stage hiddenStage = this.hiddenStagesForStages.get(stage);
-        if ( nonNull(hiddenStage) ) {
-            Platform.runLater(hiddenStage::close);
+        if ( nonNull(this.hiddenStagesForStages.remove(stage)) ) {
+            Platform.runLater(stage::close);
         }
     }
 
     void closeAllHiddenStages() {
-        Platform.runLater(() -> this.hiddenStagesForStages.values().forEach(Stage::close));
+        Platform.runLater(() -> {
+            synchronized ( this ) {
+                this.hiddenOwners.forEach(Stage::close);
+                this.hiddenOwners.clear();
+                this.nextOwner = 0;
+            }
+            this.hiddenStagesForStages.clear();
+        });
     }
 }
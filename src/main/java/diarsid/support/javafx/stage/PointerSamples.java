@@ -0,0 +1,102 @@
+package diarsid.support.javafx.stage;
+
+final class PointerSamples {
+
+    static final int DEFAULT_CAPACITY = 8;
+    static final long VELOCITY_WINDOW_NANOS = 50_000_000L;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final long[] nanos;
+    private int newest;
+    private int count;
+
+    PointerSamples() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    PointerSamples(int capacity) {
+        this.xs = new double[capacity];
+        this.ys = new double[capacity];
+        this.nanos = new long[capacity];
+        this.newest = -1;
+        this.count = 0;
+    }
+
+    void add(double x, double y, long nanoTime) {
+        this.newest = (this.newest + 1) % this.xs.length;
+        this.xs[this.newest] = x;
+        this.ys[this.newest] = y;
+        this.nanos[this.newest] = nanoTime;
+
+        if ( this.count < this.xs.length ) {
+            this.count++;
+        }
+    }
+
+    void clear() {
+        this.newest = -1;
+        this.count = 0;
+    }
+
+    int count() {
+        return this.count;
+    }
+
+    double velocityX(long nowNanos) {
+        int oldest = this.oldestInWindow(nowNanos);
+
+        if ( oldest < 0 ) {
+            return 0;
+        }
+
+        return perSecond(this.xs[this.newest] - this.xs[oldest], this.nanos[this.newest] - this.nanos[oldest]);
+    }
+
+    double velocityY(long nowNanos) {
+        int oldest = this.oldestInWindow(nowNanos);
+
+        if ( oldest < 0 ) {
+            return 0;
+        }
+
+        return perSecond(this.ys[this.newest] - this.ys[oldest], this.nanos[this.newest] - this.nanos[oldest]);
+    }
+
+    private int oldestInWindow(long nowNanos) {
+        if ( this.count < 2 ) {
+            return -1;
+        }
+
+        long newestNanos = this.nanos[this.newest];
+
+        if ( nowNanos - newestNanos > VELOCITY_WINDOW_NANOS ) {
+            return -1;
+        }
+
+        int oldest = -1;
+
+        for ( int back = 1; back < this.count; back++ ) {
+            int i = this.indexBack(back);
+            if ( newestNanos - this.nanos[i] > VELOCITY_WINDOW_NANOS ) {
+                break;
+            }
+            oldest = i;
+        }
+
+        if ( oldest < 0 || this.nanos[oldest] == newestNanos ) {
+            return -1;
+        }
+
+        return oldest;
+    }
+
+    private int indexBack(int back) {
+        int i = this.newest - back;
+        return i < 0 ? i + this.xs.length : i;
+    }
+
+    private static double perSecond(double distance, long nanos) {
+        return distance * 1_000_000_000.0 / nanos;
+    }
+}
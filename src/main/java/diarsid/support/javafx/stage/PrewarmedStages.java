@@ -0,0 +1,190 @@
+package diarsid.support.javafx.stage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static java.lang.String.format;
+import static java.util.Objects.nonNull;
+
+public class PrewarmedStages {
+
+    private static final Logger log = LoggerFactory.getLogger(PrewarmedStages.class);
+
+    private final class TimeToVisible implements ChangeListener<Boolean> {
+
+        private final Stage stage;
+        private final long requestedNanos;
+        private final boolean wasPrewarmed;
+
+        private TimeToVisible(Stage stage, long requestedNanos, boolean wasPrewarmed) {
+            this.stage = stage;
+            this.requestedNanos = requestedNanos;
+            this.wasPrewarmed = wasPrewarmed;
+        }
+
+        @Override
+        public void changed(ObservableValue<? extends Boolean> property, Boolean wasShowing, Boolean isShowing) {
+            if ( ! isShowing ) {
+                return;
+            }
+
+            this.stage.showingProperty().removeListener(this);
+            PrewarmedStages.this.recordTimeToVisible(System.nanoTime() - this.requestedNanos, this.wasPrewarmed);
+        }
+    }
+
+    private final HiddenStages hiddenStages;
+    private final int size;
+    private final Consumer<Stage> preparation;
+    private final Deque<Stage> prewarmed;
+    private final AtomicLong requests;
+    private final AtomicLong misses;
+    private final AtomicLong shown;
+    private final AtomicLong totalNanosToVisible;
+    private final AtomicLong maxNanosToVisible;
+    private final AtomicLong lastNanosToVisible;
+    private boolean isRefillScheduled;
+
+    public PrewarmedStages(HiddenStages hiddenStages, int size, Consumer<Stage> preparation) {
+        if ( size < 1 ) {
+            throw new IllegalArgumentException(format("prewarmed stages count cannot be %s!", size));
+        }
+
+        this.hiddenStages = hiddenStages;
+        this.size = size;
+        this.preparation = preparation;
+        this.prewarmed = new ArrayDeque<>(size);
+        this.requests = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.shown = new AtomicLong();
+        this.totalNanosToVisible = new AtomicLong();
+        this.maxNanosToVisible = new AtomicLong();
+        this.lastNanosToVisible = new AtomicLong();
+        this.isRefillScheduled = false;
+    }
+
+    public void prewarm() {
+        if ( Platform.isFxApplicationThread() ) {
+            this.scheduleRefill();
+        }
+        else {
+            Platform.runLater(this::scheduleRefill);
+        }
+    }
+
+    public Stage newHiddenStage() {
+        long requestedNanos = System.nanoTime();
+        this.requests.incrementAndGet();
+
+        Stage stage = this.prewarmed.pollFirst();
+        boolean wasPrewarmed = nonNull(stage);
+
+        if ( ! wasPrewarmed ) {
+            this.misses.incrementAndGet();
+            stage = this.createPrewarmed();
+        }
+
+        stage.showingProperty().addListener(new TimeToVisible(stage, requestedNanos, wasPrewarmed));
+
+        this.scheduleRefill();
+
+        return stage;
+    }
+
+    public int prewarmedCount() {
+        return this.prewarmed.size();
+    }
+
+    public long requestsCount() {
+        return this.requests.get();
+    }
+
+    public long missesCount() {
+        return this.misses.get();
+    }
+
+    public long averageTimeToVisible(TimeUnit unit) {
+        long shownCount = this.shown.get();
+
+        if ( shownCount == 0 ) {
+            return 0;
+        }
+
+        return unit.convert(this.totalNanosToVisible.get() / shownCount, TimeUnit.NANOSECONDS);
+    }
+
+    public long maxTimeToVisible(TimeUnit unit) {
+        return unit.convert(this.maxNanosToVisible.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long lastTimeToVisible(TimeUnit unit) {
+        return unit.convert(this.lastNanosToVisible.get(), TimeUnit.NANOSECONDS);
+    }
+
+    private void recordTimeToVisible(long nanos, boolean wasPrewarmed) {
+        this.shown.incrementAndGet();
+        this.totalNanosToVisible.addAndGet(nanos);
+        this.lastNanosToVisible.set(nanos);
+        this.maxNanosToVisible.accumulateAndGet(nanos, Math::max);
+
+        if ( log.isDebugEnabled() ) {
+            log.debug(format(
+                    "stage visible in %.3f ms, %s",
+                    nanos / 1_000_000.0,
+                    wasPrewarmed ? "prewarmed" : "created on request"));
+        }
+    }
+
+    private Stage createPrewarmed() {
+        Stage stage = this.hiddenStages.newHiddenStage();
+        this.preparation.accept(stage);
+
+        Scene scene = stage.getScene();
+        if ( nonNull(scene) ) {
+            Parent root = scene.getRoot();
+            root.applyCss();
+            root.layout();
+        }
+
+        return stage;
+    }
+
+    private void scheduleRefill() {
+        if ( this.isRefillScheduled || this.prewarmed.size() >= this.size ) {
+            return;
+        }
+
+        this.isRefillScheduled = true;
+        Platform.runLater(this::refillOne);
+    }
+
+    private void refillOne() {
+        this.isRefillScheduled = false;
+
+        if ( this.prewarmed.size() >= this.size ) {
+            return;
+        }
+
+        try {
+            this.prewarmed.addLast(this.createPrewarmed());
+        }
+        catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return;
+        }
+
+        this.scheduleRefill();
+    }
+}
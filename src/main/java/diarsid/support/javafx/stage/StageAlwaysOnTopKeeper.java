@@ -1,28 +1,95 @@
 package diarsid.support.javafx.stage;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
 import javafx.stage.Stage;
 
 import diarsid.support.concurrency.stateful.workers.AbstractStatefulPausableDestroyableWorker;
+import diarsid.support.concurrency.threads.IncrementThreadsNaming;
 import diarsid.support.concurrency.threads.NamedThreadFactory;
+import diarsid.support.objects.CommonEnum;
 import diarsid.support.objects.references.Possible;
 
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static diarsid.support.concurrency.threads.ThreadsUtil.shutdownAndWait;
+import static diarsid.support.javafx.PlatformActions.doOnFxThread;
+import static diarsid.support.javafx.stage.StageAlwaysOnTopKeeper.Mode.ON_EVENTS;
+import static diarsid.support.javafx.stage.StageAlwaysOnTopKeeper.Mode.POLLING;
 import static diarsid.support.objects.references.References.simplePossibleButEmpty;
 
 public class StageAlwaysOnTopKeeper extends AbstractStatefulPausableDestroyableWorker {
 
+    public static final long SHARED_FALLBACK_CHECK_SECONDS = 5;
+
+    public static enum Mode implements CommonEnum<Mode> {
+        POLLING,
+        ON_EVENTS
+    }
+
+    private static final class SharedFallbackCheck {
+
+        private final Set<StageAlwaysOnTopKeeper> keepers;
+        private ScheduledExecutorService async;
+        private ScheduledFuture<?> asyncJob;
+
+        private SharedFallbackCheck() {
+            this.keepers = ConcurrentHashMap.newKeySet();
+        }
+
+        synchronized void add(StageAlwaysOnTopKeeper keeper) {
+            this.keepers.add(keeper);
+
+            if ( isNull(this.asyncJob) ) {
+                this.async = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory(new IncrementThreadsNaming(
+                        StageAlwaysOnTopKeeper.class.getSimpleName() + ".sharedFallbackCheck")));
+                this.asyncJob = this.async.scheduleAtFixedRate(
+                        this::check, SHARED_FALLBACK_CHECK_SECONDS, SHARED_FALLBACK_CHECK_SECONDS, SECONDS);
+            }
+        }
+
+        synchronized void remove(StageAlwaysOnTopKeeper keeper) {
+            this.keepers.remove(keeper);
+
+            if ( this.keepers.isEmpty() && nonNull(this.asyncJob) ) {
+                this.asyncJob.cancel(false);
+                this.asyncJob = null;
+                ScheduledExecutorService asyncToShutdown = this.async;
+                this.async = null;
+                asyncToShutdown.shutdown();
+            }
+        }
+
+        private void check() {
+            if ( this.keepers.isEmpty() ) {
+                return;
+            }
+
+            Platform.runLater(() -> {
+                for ( StageAlwaysOnTopKeeper keeper : this.keepers ) {
+                    keeper.reassertOnTop();
+                }
+            });
+        }
+    }
+
+    private static final SharedFallbackCheck SHARED_FALLBACK_CHECK = new SharedFallbackCheck();
+
     private final Stage stage;
+    private final Mode mode;
     private final ScheduledExecutorService async;
     private final Possible<ScheduledFuture> asyncJob;
     private final long time;
     private final TimeUnit unit;
+    private final ChangeListener<Boolean> onStageStateChanged;
 
     public StageAlwaysOnTopKeeper(
             String name,
@@ -32,18 +99,60 @@ public class StageAlwaysOnTopKeeper extends AbstractStatefulPausableDestroyableW
             TimeUnit unit) {
         super(name);
         this.stage = stage;
+        this.mode = POLLING;
         this.async = new ScheduledThreadPoolExecutor(1, namedThreadFactory);
         this.asyncJob = simplePossibleButEmpty();
         this.time = time;
         this.unit = unit;
+        this.onStageStateChanged = null;
+    }
+
+    public StageAlwaysOnTopKeeper(String name, Stage stage) {
+        super(name);
+        this.stage = stage;
+        this.mode = ON_EVENTS;
+        this.async = null;
+        this.asyncJob = simplePossibleButEmpty();
+        this.time = SHARED_FALLBACK_CHECK_SECONDS;
+        this.unit = SECONDS;
+        this.onStageStateChanged = (property, oldValue, newValue) -> this.reassertOnTop();
+    }
+
+    public Mode mode() {
+        return this.mode;
     }
 
     private void onTop() {
         Platform.runLater(() -> this.stage.setAlwaysOnTop(true));
     }
 
+    private void reassertOnTop() {
+        if ( this.stage.isShowing() && ! this.stage.isAlwaysOnTop() ) {
+            this.stage.setAlwaysOnTop(true);
+        }
+    }
+
+    private void listenToStage() {
+        this.stage.alwaysOnTopProperty().addListener(this.onStageStateChanged);
+        this.stage.focusedProperty().addListener(this.onStageStateChanged);
+        this.stage.showingProperty().addListener(this.onStageStateChanged);
+        this.reassertOnTop();
+    }
+
+    private void stopListeningToStage() {
+        this.stage.alwaysOnTopProperty().removeListener(this.onStageStateChanged);
+        this.stage.focusedProperty().removeListener(this.onStageStateChanged);
+        this.stage.showingProperty().removeListener(this.onStageStateChanged);
+    }
+
     @Override
     protected boolean doSynchronizedStartWork() {
+        if ( this.mode.is(ON_EVENTS) ) {
+            doOnFxThread(this::listenToStage);
+            SHARED_FALLBACK_CHECK.add(this);
+            return true;
+        }
+
         ScheduledFuture newSchedule = this.async.scheduleAtFixedRate(this::onTop, 0, this.time, this.unit);
         ScheduledFuture oldSchedule = this.asyncJob.resetTo(newSchedule);
 
@@ -56,6 +165,12 @@ public class StageAlwaysOnTopKeeper extends AbstractStatefulPausableDestroyableW
 
     @Override
     protected boolean doSynchronizedPauseWork() {
+        if ( this.mode.is(ON_EVENTS) ) {
+            SHARED_FALLBACK_CHECK.remove(this);
+            doOnFxThread(this::stopListeningToStage);
+            return true;
+        }
+
         ScheduledFuture schedule = this.asyncJob.orThrow();
         schedule.cancel(true);
         return true;
@@ -63,6 +178,12 @@ public class StageAlwaysOnTopKeeper extends AbstractStatefulPausableDestroyableW
 
     @Override
     protected boolean doSynchronizedDestroy() {
+        if ( this.mode.is(ON_EVENTS) ) {
+            SHARED_FALLBACK_CHECK.remove(this);
+            doOnFxThread(this::stopListeningToStage);
+            return true;
+        }
+
         shutdownAndWait(this.async);
         return true;
     }
@@ -1,82 +1,67 @@
 package diarsid.support.javafx.stage;
 
-import java.util.ArrayList;
-import java.util.EnumSet;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.stage.Stage;
 
 import diarsid.desktop.ui.geometry.Rectangle;
-import diarsid.support.javafx.geometry.Screen;
+import diarsid.support.objects.CommonEnum;
 import diarsid.support.objects.references.Possible;
 
 import static java.util.Arrays.asList;
 
-import static diarsid.desktop.ui.geometry.Rectangle.Side.BOTTOM;
-import static diarsid.desktop.ui.geometry.Rectangle.Side.LEFT;
-import static diarsid.desktop.ui.geometry.Rectangle.Side.RIGHT;
-import static diarsid.desktop.ui.geometry.Rectangle.Side.TOP;
+import static diarsid.support.javafx.geometry.RectangleCollisions.HORIZONTAL;
+import static diarsid.support.javafx.geometry.RectangleCollisions.VERTICAL;
+import static diarsid.support.javafx.geometry.RectangleCollisions.isAny;
+import static diarsid.support.javafx.geometry.RectangleCollisions.isNone;
+import static diarsid.support.javafx.stage.StageInBoundsKeeper.Enforcement.ONCE_PER_PULSE;
+import static diarsid.support.javafx.stage.StageInBoundsKeeper.Enforcement.ON_EVERY_CHANGE;
+import static diarsid.support.javafx.stage.StageInBoundsKeeper.Interception.CLAMP;
+import static diarsid.support.javafx.stage.StageInBoundsKeeper.Interception.IGNORE_AXIS;
 import static diarsid.support.objects.references.References.simplePossibleButEmpty;
 
 public class StageInBoundsKeeper {
 
-    private final Rectangle bounds;
+    public static enum Enforcement implements CommonEnum<Enforcement> {
+        ON_EVERY_CHANGE,
+        ONCE_PER_PULSE
+    }
+
+    public static enum Interception implements CommonEnum<Interception> {
+        IGNORE_AXIS,
+        CLAMP
+    }
+
+    private volatile Rectangle bounds;
     private final Stage stage;
+    private final StageRelocation relocation;
     private final Insets zeroInsets = Insets.EMPTY;
     private final Possible<Insets> insets;
+    private final AnimationTimer enforcementPulses = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            StageInBoundsKeeper.this.onPulse();
+        }
+    };
+    private Enforcement enforcement = ON_EVERY_CHANGE;
+    private Interception interception = IGNORE_AXIS;
+    private boolean isDirty;
 
     public StageInBoundsKeeper(StageMoving stageMoving, Rectangle bounds) {
         this.bounds = bounds;
         this.stage = stageMoving.stage();
+        this.relocation = stageMoving.relocation();
         this.insets = simplePossibleButEmpty();
 
-        this.stage.xProperty().addListener((property, oldV, newV) -> {
-            if ( stageMoving.isMovingNow() ) {
-                return;
-            }
-            this.onChange((double) newV, this.stage.getY(), this.stage.getWidth(), this.stage.getHeight());
-        });
-
-        this.stage.yProperty().addListener((property, oldV, newV) -> {
-            if ( stageMoving.isMovingNow() ) {
-                return;
-            }
-            this.onChange(this.stage.getX(), (double) newV, this.stage.getWidth(), this.stage.getHeight());
-        });
-
-        this.stage.heightProperty().addListener((property, oldV, newV) -> {
-            this.onChange(this.stage.getX(), this.stage.getY(), this.stage.getWidth(), (double) newV);
-        });
-
-        this.stage.widthProperty().addListener((property, oldV, newV) -> {
-            this.onChange(this.stage.getX(), this.stage.getY(), (double) newV, this.stage.getHeight());
-        });
-
-        StageMoving.Move.Interceptor interceptor = (behavior, stageAnchorMove, mouseMove) -> {
-            Insets currentInsets = this.insets.or(this.zeroInsets);
-
-            EnumSet<Screen.Side> collisions = this.bounds.findCollisions(
-                    stageAnchorMove.x() + currentInsets.getLeft(),
-                    stageAnchorMove.y() + currentInsets.getTop(),
-                    this.stage.getWidth() - currentInsets.getLeft() - currentInsets.getRight(),
-                    this.stage.getHeight() - currentInsets.getTop() - currentInsets.getBottom());
+        this.listenToPosition(() -> stageMoving.isMovingNow() || this.relocation.isRelocatingNow());
+        this.listenToSize();
+        this.listenToRelocation(stageMoving::isMovingNow);
 
-            if ( collisions.isEmpty() ) {
-                return;
-            }
-
-            if ( collisions.contains(TOP) || collisions.contains(BOTTOM) ) {
-                stageAnchorMove.ignoreY();
-            }
-
-            if ( collisions.contains(LEFT) || collisions.contains(RIGHT) ) {
-                stageAnchorMove.ignoreX();
-            }
-        };
-
-        stageMoving.intercept(interceptor);
+        stageMoving.intercept(this.createInterceptor());
     }
 
     public StageInBoundsKeeper(StageMoving stageMoving, Rectangle bounds, String... moves) {
@@ -84,24 +69,47 @@ public class StageInBoundsKeeper {
     }
 
     public StageInBoundsKeeper(StageMoving stageMoving, Rectangle bounds, List<String> moves) {
+        this(stageMoving, bounds);
+    }
+
+    public StageInBoundsKeeper(StageRelocation relocation, Rectangle bounds) {
         this.bounds = bounds;
-        this.stage = stageMoving.stage();
+        this.stage = relocation.stage();
+        this.relocation = relocation;
         this.insets = simplePossibleButEmpty();
 
+        this.listenToPosition(this.relocation::isRelocatingNow);
+        this.listenToSize();
+        this.listenToRelocation(() -> false);
+    }
+
+    public StageInBoundsKeeper(Stage stage, Rectangle bounds) {
+        this.bounds = bounds;
+        this.stage = stage;
+        this.relocation = new StageRelocation(stage);
+        this.insets = simplePossibleButEmpty();
+
+        this.listenToPosition(this.relocation::isRelocatingNow);
+        this.listenToSize();
+    }
+
+    private void listenToPosition(BooleanSupplier isChangeToSkip) {
         this.stage.xProperty().addListener((property, oldV, newV) -> {
-            if ( stageMoving.isMovingNow() ) {
+            if ( isChangeToSkip.getAsBoolean() ) {
                 return;
             }
             this.onChange((double) newV, this.stage.getY(), this.stage.getWidth(), this.stage.getHeight());
         });
 
         this.stage.yProperty().addListener((property, oldV, newV) -> {
-            if ( stageMoving.isMovingNow() ) {
+            if ( isChangeToSkip.getAsBoolean() ) {
                 return;
             }
             this.onChange(this.stage.getX(), (double) newV, this.stage.getWidth(), this.stage.getHeight());
         });
+    }
 
+    private void listenToSize() {
         this.stage.heightProperty().addListener((property, oldV, newV) -> {
             this.onChange(this.stage.getX(), this.stage.getY(), this.stage.getWidth(), (double) newV);
         });
@@ -109,108 +117,139 @@ public class StageInBoundsKeeper {
         this.stage.widthProperty().addListener((property, oldV, newV) -> {
             this.onChange(this.stage.getX(), this.stage.getY(), (double) newV, this.stage.getHeight());
         });
+    }
 
-        StageMoving.Move.Interceptor interceptor = (behavior, stageAnchorMove, mouseMove) -> {
-            Insets currentInsets = this.insets.or(this.zeroInsets);
+    private void listenToRelocation(BooleanSupplier isRelocationToSkip) {
+        this.relocation.onRelocated((relocatedStage) -> {
+            if ( isRelocationToSkip.getAsBoolean() ) {
+                return;
+            }
+            this.onChange(this.stage.getX(), this.stage.getY(), this.stage.getWidth(), this.stage.getHeight());
+        });
+    }
 
-            EnumSet<Screen.Side> collisions = this.bounds.findCollisions(
-                    stageAnchorMove.x() + currentInsets.getLeft(),
-                    stageAnchorMove.y() + currentInsets.getTop(),
-                    this.stage.getWidth() - currentInsets.getLeft() - currentInsets.getRight(),
-                    this.stage.getHeight() - currentInsets.getTop() - currentInsets.getBottom());
+    private StageMoving.Move.Interceptor createInterceptor() {
+        return (behavior, stageAnchorMove, mouseMove) -> {
+            if ( this.interception.is(CLAMP) ) {
+                BoundsClamping.clamp(
+                        this.bounds,
+                        stageAnchorMove,
+                        this.stage,
+                        this.insets.or(this.zeroInsets));
+                return;
+            }
+
+            int collisions = BoundsClamping.collisionsOf(
+                    this.bounds,
+                    stageAnchorMove.finalX(),
+                    stageAnchorMove.finalY(),
+                    BoundsClamping.widthOf(stageAnchorMove, this.stage),
+                    BoundsClamping.heightOf(stageAnchorMove, this.stage),
+                    this.insets.or(this.zeroInsets));
 
-            if ( collisions.isEmpty() ) {
+            if ( isNone(collisions) ) {
                 return;
             }
 
-            if ( collisions.contains(TOP) || collisions.contains(BOTTOM) ) {
+            if ( isAny(collisions, VERTICAL) ) {
                 stageAnchorMove.ignoreY();
             }
 
-            if ( collisions.contains(LEFT) || collisions.contains(RIGHT) ) {
+            if ( isAny(collisions, HORIZONTAL) ) {
                 stageAnchorMove.ignoreX();
             }
         };
+    }
 
-        stageMoving.intercept(interceptor);
+    public void setStageInsets(Insets insets) {
+        this.insets.resetTo(insets);
     }
 
-    public StageInBoundsKeeper(Stage stage, Rectangle bounds) {
-        this.bounds = bounds;
-        this.stage = stage;
-        this.insets = simplePossibleButEmpty();
+    public Rectangle bounds() {
+        return this.bounds;
+    }
 
-        this.stage.xProperty().addListener((property, oldV, newV) -> {
-            this.onChange((double) newV, this.stage.getY(), this.stage.getWidth(), this.stage.getHeight());
-        });
+    public void setBounds(Rectangle bounds) {
+        this.bounds = bounds;
+        this.onChange(this.stage.getX(), this.stage.getY(), this.stage.getWidth(), this.stage.getHeight());
+    }
 
-        this.stage.yProperty().addListener((property, oldV, newV) -> {
-            this.onChange(this.stage.getX(), (double) newV, this.stage.getWidth(), this.stage.getHeight());
-        });
+    public Enforcement enforcement() {
+        return this.enforcement;
+    }
 
-        this.stage.heightProperty().addListener((property, oldV, newV) -> {
-            this.onChange(this.stage.getX(), this.stage.getY(), this.stage.getWidth(), (double) newV);
-        });
+    public void setEnforcement(Enforcement enforcement) {
+        this.enforcement = enforcement;
+    }
 
-        this.stage.widthProperty().addListener((property, oldV, newV) -> {
-            this.onChange(this.stage.getX(), this.stage.getY(), (double) newV, this.stage.getHeight());
-        });
+    public Interception interception() {
+        return this.interception;
     }
 
-    public void setStageInsets(Insets insets) {
-        this.insets.resetTo(insets);
+    public void setInterception(Interception interception) {
+        this.interception = interception;
     }
 
     private void onChange(double stageX, double stageY, double stageWidth, double stageHeight) {
-        Insets currentInsets = this.insets.or(this.zeroInsets);
+        if ( this.enforcement.is(ONCE_PER_PULSE) ) {
+            if ( ! this.isDirty ) {
+                this.isDirty = true;
+                this.enforcementPulses.start();
+            }
+        }
+        else {
+            this.correctOnChange(stageX, stageY, stageWidth, stageHeight);
+        }
+    }
 
-        double x = stageX + currentInsets.getLeft();
-        double y = stageY + currentInsets.getTop();
-        double width = stageWidth - currentInsets.getLeft() - currentInsets.getRight();
-        double height = stageHeight - currentInsets.getTop() - currentInsets.getBottom();
+    private void onPulse() {
+        this.enforcementPulses.stop();
 
-        if ( this.bounds.contains(x, y, width, height) ) {
+        if ( ! this.isDirty ) {
             return;
         }
 
-        EnumSet<Rectangle.Side> collisions = this.bounds.findCollisions(x, y, width, height);
+        this.isDirty = false;
+        this.enforceBounds();
+    }
 
-        if ( collisions.isEmpty() ) {
+    private void enforceBounds() {
+        Insets currentInsets = this.insets.or(this.zeroInsets);
+
+        double stageX = this.stage.getX();
+        double stageY = this.stage.getY();
+        double stageWidth = this.stage.getWidth();
+        double stageHeight = this.stage.getHeight();
+
+        if ( BoundsClamping.isInside(this.bounds, stageX, stageY, stageWidth, stageHeight, currentInsets) ) {
             return;
         }
 
-        List<Runnable> collisionFixes = new ArrayList<>();
-        for ( Rectangle.Side side : collisions ) {
-            switch ( side ) {
-                case TOP:
-                    collisionFixes.add(() -> {
-                        this.stage.setY(this.bounds.anchor().y() - currentInsets.getTop());
-                    });
-                    break;
-                case BOTTOM:
-                    collisionFixes.add(() -> {
-                        this.stage.setY(this.bounds.oppositeAnchorY() - stageHeight + currentInsets.getBottom());
-                    });
-                    break;
-                case LEFT:
-                    collisionFixes.add(() -> {
-                        this.stage.setX(this.bounds.anchor().x() - currentInsets.getLeft());
-                    });
-                    break;
-                case RIGHT:
-                    collisionFixes.add(() -> {
-                        this.stage.setX(this.bounds.oppositeAnchorX() - stageWidth + currentInsets.getRight());
-                    });
-                    break;
-                default:
-                    side.throwUnsupported();
-            }
+        this.relocation.relocate(
+                BoundsClamping.clampedX(this.bounds, stageX, stageWidth, currentInsets),
+                BoundsClamping.clampedY(this.bounds, stageY, stageHeight, currentInsets));
+    }
+
+    private void correctOnChange(double stageX, double stageY, double stageWidth, double stageHeight) {
+        Insets currentInsets = this.insets.or(this.zeroInsets);
+        Rectangle currentBounds = this.bounds;
+
+        int collisions = BoundsClamping.collisionsOf(
+                currentBounds, stageX, stageY, stageWidth, stageHeight, currentInsets);
+
+        if ( isNone(collisions) ) {
+            return;
         }
 
+        boolean fixX = isAny(collisions, HORIZONTAL);
+        boolean fixY = isAny(collisions, VERTICAL);
+        double finalFixedX = BoundsClamping.clampedX(currentBounds, stageX, stageWidth, currentInsets);
+        double finalFixedY = BoundsClamping.clampedY(currentBounds, stageY, stageHeight, currentInsets);
+
         Platform.runLater(() -> {
-            for ( Runnable fix : collisionFixes ) {
-                fix.run();
-            }
+            this.relocation.relocate(
+                    fixX ? finalFixedX : this.stage.getX(),
+                    fixY ? finalFixedY : this.stage.getY());
         });
     }
 }
@@ -1,37 +1,71 @@
 package diarsid.support.javafx.stage;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import javafx.animation.AnimationTimer;
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import javafx.event.EventHandler;
 import javafx.event.EventType;
 import javafx.scene.Node;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import diarsid.desktop.ui.geometry.Point;
+import diarsid.support.concurrency.threads.IncrementThreadsNaming;
+import diarsid.support.concurrency.threads.NamedThreadFactory;
+import diarsid.support.objects.CommonEnum;
 
-import static java.util.Collections.emptyList;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.String.format;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.concurrent.TimeUnit.SECONDS;
 
 import static javafx.scene.input.MouseButton.PRIMARY;
 import static javafx.scene.input.MouseEvent.MOUSE_DRAGGED;
 import static javafx.scene.input.MouseEvent.MOUSE_PRESSED;
 import static javafx.scene.input.MouseEvent.MOUSE_RELEASED;
 
-import static diarsid.support.objects.collections.CollectionUtils.nonEmpty;
+import static diarsid.support.javafx.stage.StageMoving.DragUpdates.ONCE_PER_PULSE;
+import static diarsid.support.javafx.stage.StageMoving.DragUpdates.ON_EVERY_EVENT;
 
 public class StageMoving {
 
+    private static final Logger log = LoggerFactory.getLogger(StageMoving.class);
+
     public static final String ANY_MOVE = "ANY_MOVE";
     public static final String MOVE_BY_MOUSE = "MOVE_BY_MOUSE";
 
+    public static final int ASYNC_CALLBACKS_THREADS = 2;
+    public static final long ASYNC_CALLBACKS_THREADS_KEEP_ALIVE_SECONDS = 30;
+    public static final double DEFAULT_MAX_POINTER_PREDICTION = 48;
+
+    private static final long NO_POINTER_PREDICTION = 0;
+
+    public static enum DragUpdates implements CommonEnum<DragUpdates> {
+        ON_EVERY_EVENT,
+        ONCE_PER_PULSE
+    }
+
     public interface Move extends Point {
 
         double startX();
@@ -52,6 +86,18 @@ public class StageMoving {
 
             double finalY();
 
+            /*
+             * Size of the moved stage, or of the whole group if the stage moves with a group.
+             * NaN when the size is not known to the implementation - the stage size applies then.
+             */
+            default double width() {
+                return Double.NaN;
+            }
+
+            default double height() {
+                return Double.NaN;
+            }
+
             void ignoreX();
 
             void ignoreY();
@@ -77,6 +123,81 @@ public class StageMoving {
         }
     }
 
+    public static final class MoveSnapshot implements Move {
+
+        private final double startX;
+        private final double startY;
+        private final double x;
+        private final double y;
+
+        MoveSnapshot(Move move) {
+            this.startX = move.startX();
+            this.startY = move.startY();
+            this.x = move.x();
+            this.y = move.y();
+        }
+
+        @Override
+        public double startX() {
+            return this.startX;
+        }
+
+        @Override
+        public double startY() {
+            return this.startY;
+        }
+
+        @Override
+        public double x() {
+            return this.x;
+        }
+
+        @Override
+        public double y() {
+            return this.y;
+        }
+
+        @Override
+        public String toString() {
+            return "MoveSnapshot{" +
+                    "startX=" + startX +
+                    ", startY=" + startY +
+                    ", x=" + x +
+                    ", y=" + y +
+                    '}';
+        }
+    }
+
+    private static final class MovedSnapshot {
+
+        final String behavior;
+        final MoveSnapshot stageMove;
+        final MoveSnapshot mouseMove;
+
+        MovedSnapshot(String behavior, Move stageMove, Move mouseMove) {
+            this.behavior = behavior;
+            this.stageMove = new MoveSnapshot(stageMove);
+            this.mouseMove = new MoveSnapshot(mouseMove);
+        }
+    }
+
+    private static final class AsyncCallbacksExecutor {
+
+        private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+        private static ThreadPoolExecutor createExecutor() {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                    ASYNC_CALLBACKS_THREADS,
+                    ASYNC_CALLBACKS_THREADS,
+                    ASYNC_CALLBACKS_THREADS_KEEP_ALIVE_SECONDS,
+                    SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new NamedThreadFactory(new IncrementThreadsNaming(StageMoving.class.getSimpleName() + ".afterMoveAsync")));
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+
     static final class ChangeableMoveImpl implements Move.Changeable {
 
         double startX;
@@ -94,6 +215,14 @@ public class StageMoving {
         boolean xIgnored;
         boolean yIgnored;
 
+        double width;
+        double height;
+
+        void sized(double width, double height) {
+            this.width = width;
+            this.height = height;
+        }
+
         void startAt(double x, double y) {
             this.startX = x;
             this.startY = y;
@@ -181,6 +310,16 @@ public class StageMoving {
             }
         }
 
+        @Override
+        public double width() {
+            return this.width;
+        }
+
+        @Override
+        public double height() {
+            return this.height;
+        }
+
         @Override
         public void ignoreX() {
             this.xIgnored = true;
@@ -215,12 +354,14 @@ public class StageMoving {
                     xChanged == that.xChanged &&
                     yChanged == that.yChanged &&
                     xIgnored == that.xIgnored &&
-                    yIgnored == that.yIgnored;
+                    yIgnored == that.yIgnored &&
+                    Double.compare(that.width, width) == 0 &&
+                    Double.compare(that.height, height) == 0;
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(startX, startY, initialX, initialY, changedX, changedY, xChanged, yChanged, xIgnored, yIgnored);
+            return Objects.hash(startX, startY, initialX, initialY, changedX, changedY, xChanged, yChanged, xIgnored, yIgnored, width, height);
         }
 
         @Override
@@ -236,6 +377,8 @@ public class StageMoving {
                     ", yChanged=" + yChanged +
                     ", xIgnored=" + xIgnored +
                     ", yIgnored=" + yIgnored +
+                    ", width=" + width +
+                    ", height=" + height +
                     '}';
         }
     }
@@ -295,81 +438,457 @@ public class StageMoving {
     }
 
     private final Stage stage;
+    private final StageRelocation relocation;
     private final BooleanProperty isStageMovable;
-    private final List<Move.Callback> beforeMoveCallbacks;
-    private final List<Move.Callback> afterMoveCallbacks;
+    private final Object callbacksLock;
+    private volatile Move.Callback[] beforeMoveCallbacks;
+    private volatile Move.Callback[] afterMoveCallbacks;
+    private volatile Move.Callback[] afterMoveAsyncCallbacks;
+    private final AtomicReference<MovedSnapshot> pendingMovedSnapshot;
+    private final AtomicBoolean isAsyncCallbacksDrainScheduled;
+    private final AtomicLong coalescedAsyncCallbacks;
     private final Map<String, List<Move.Interceptor>> moveInterceptorsByMove;
+    private volatile Map<String, Move.Interceptor[]> interceptorsChainsByMove;
+    private volatile Move.Interceptor[] anyMoveInterceptorsChain;
+    private volatile Move.Interceptor[] mouseMoveInterceptorsChain;
     private final AtomicBoolean isMoving;
     private final AtomicReference<Boolean> isMovableWhenPressed;
     private final AtomicReference<EventType<MouseEvent>> lastEvent;
     private final ChangeableMoveImpl stageMove;
     private final MouseMoveImpl mouseMove;
-    private final List<Node> boundNodes;
+    private final EventHandler<MouseEvent> onPressed;
+    private final EventHandler<MouseEvent> onDragged;
+    private final EventHandler<MouseEvent> onReleased;
+    private final Set<Node> boundNodes;
+    private final Set<Node> weaklyBoundNodes;
+    private final DragUpdates dragUpdates;
+    private final AnimationTimer dragPulses;
+    private final AtomicLong appliedMoves;
+    private final AtomicLong coalescedMoves;
+    private final PointerSamples pointerSamples;
+    private final Object groupLock;
+    private volatile StageRelocation[] group;
+    private StageRelocation[] capturedGroup;
+    private double[] capturedGroupOffsetsX;
+    private double[] capturedGroupOffsetsY;
+    private double stageOffsetX;
+    private double stageOffsetY;
     private double xInitialDelta;
     private double yInitialDelta;
+    private boolean hasPendingDrag;
+    private double pendingDragX;
+    private double pendingDragY;
+    private volatile long pointerPredictionNanos;
+    private volatile double maxPointerPrediction;
     
     public StageMoving(Stage stage) {
+        this(stage, ON_EVERY_EVENT);
+    }
+
+    public StageMoving(Stage stage, DragUpdates dragUpdates) {
         this.stage = stage;
+        this.relocation = new StageRelocation(stage);
         this.isStageMovable = new SimpleBooleanProperty(true);
-        this.beforeMoveCallbacks = new ArrayList<>();
-        this.afterMoveCallbacks = new ArrayList<>();
+        this.callbacksLock = new Object();
+        this.beforeMoveCallbacks = new Move.Callback[0];
+        this.afterMoveCallbacks = new Move.Callback[0];
+        this.afterMoveAsyncCallbacks = new Move.Callback[0];
+        this.pendingMovedSnapshot = new AtomicReference<>();
+        this.isAsyncCallbacksDrainScheduled = new AtomicBoolean(false);
+        this.coalescedAsyncCallbacks = new AtomicLong();
         this.moveInterceptorsByMove = new HashMap<>();
         this.moveInterceptorsByMove.put(ANY_MOVE, new ArrayList<>());
+        this.rebuildInterceptorsChains();
         this.isMoving = new AtomicBoolean(false);
         this.isMovableWhenPressed = new AtomicReference<>();
         this.lastEvent = new AtomicReference<>();
         this.stageMove = new ChangeableMoveImpl();
         this.mouseMove = new MouseMoveImpl();
-        this.boundNodes = new ArrayList<>();
+        this.onPressed = this::onMousePressed;
+        this.onDragged = this::onMouseDragged;
+        this.onReleased = this::onMouseReleased;
+        this.boundNodes = new HashSet<>();
+        this.weaklyBoundNodes = Collections.newSetFromMap(new WeakHashMap<>());
+        this.dragUpdates = dragUpdates;
+        this.dragPulses = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                StageMoving.this.applyPendingDrag();
+            }
+        };
+        this.appliedMoves = new AtomicLong();
+        this.coalescedMoves = new AtomicLong();
+        this.pointerSamples = new PointerSamples();
+        this.pointerPredictionNanos = NO_POINTER_PREDICTION;
+        this.maxPointerPrediction = DEFAULT_MAX_POINTER_PREDICTION;
+        this.groupLock = new Object();
+        this.group = new StageRelocation[0];
+        this.capturedGroup = this.group;
+        this.capturedGroupOffsetsX = new double[0];
+        this.capturedGroupOffsetsY = new double[0];
     }
 
     public StageMoving(Stage stage, Move.Interceptor moveInterceptor) {
         this(stage);
-        this.moveInterceptorsByMove.get(ANY_MOVE).add(moveInterceptor);
+        this.intercept(moveInterceptor);
     }
 
     Stage stage() {
         return this.stage;
     }
 
+    public StageRelocation relocation() {
+        return this.relocation;
+    }
+
     public BooleanProperty isMovable() {
         return this.isStageMovable;
     }
     
     public void bindTo(Node node) {
+        if ( this.isBoundTo(node) ) {
+            return;
+        }
+
         this.boundNodes.add(node);
 
-        node.addEventHandler(MOUSE_PRESSED, this::onMousePressed);
-        node.addEventHandler(MOUSE_DRAGGED, this::onMouseDragged);
-        node.addEventHandler(MOUSE_RELEASED, this::onMouseReleased);
+        node.addEventHandler(MOUSE_PRESSED, this.onPressed);
+        node.addEventHandler(MOUSE_DRAGGED, this.onDragged);
+        node.addEventHandler(MOUSE_RELEASED, this.onReleased);
+    }
+
+    /*
+     * The node is held weakly, so a discarded node does not stay reachable through this
+     * StageMoving. Handlers on the node are strong, as in bindTo, so dragging keeps
+     * working even if the StageMoving itself is not referenced anywhere else.
+     */
+    public void bindWeaklyTo(Node node) {
+        if ( this.isBoundTo(node) ) {
+            return;
+        }
+
+        this.weaklyBoundNodes.add(node);
+
+        node.addEventHandler(MOUSE_PRESSED, this.onPressed);
+        node.addEventHandler(MOUSE_DRAGGED, this.onDragged);
+        node.addEventHandler(MOUSE_RELEASED, this.onReleased);
+    }
+
+    public boolean isBoundTo(Node node) {
+        return this.boundNodes.contains(node) || this.weaklyBoundNodes.contains(node);
+    }
+
+    public int boundNodesCount() {
+        return this.boundNodes.size() + this.weaklyBoundNodes.size();
+    }
+
+    public void unbind(Node node) {
+        boolean wasBound = this.boundNodes.remove(node);
+        boolean wasWeaklyBound = this.weaklyBoundNodes.remove(node);
+
+        if ( ! wasBound && ! wasWeaklyBound ) {
+            return;
+        }
+
+        node.removeEventHandler(MOUSE_PRESSED, this.onPressed);
+        node.removeEventHandler(MOUSE_DRAGGED, this.onDragged);
+        node.removeEventHandler(MOUSE_RELEASED, this.onReleased);
+
+        this.endDragInProgress();
+    }
+
+    public void unbindAll() {
+        List<Node> nodes = new ArrayList<>(this.boundNodes);
+        nodes.addAll(this.weaklyBoundNodes);
+
+        for ( Node node : nodes ) {
+            this.unbind(node);
+        }
+    }
+
+    public void addToGroup(StageMoving member) {
+        this.addToGroup(member.relocation());
+    }
+
+    public void addToGroup(Stage member) {
+        this.addToGroup(new StageRelocation(member));
+    }
+
+    private void addToGroup(StageRelocation member) {
+        synchronized ( this.groupLock ) {
+            if ( member.stage() == this.stage || this.isInGroup(member.stage()) ) {
+                return;
+            }
+
+            StageRelocation[] group = Arrays.copyOf(this.group, this.group.length + 1);
+            group[this.group.length] = member;
+            this.group = group;
+        }
+    }
+
+    public void removeFromGroup(Stage member) {
+        synchronized ( this.groupLock ) {
+            StageRelocation[] group = this.group;
+            for ( int i = 0; i < group.length; i++ ) {
+                if ( group[i].stage() == member ) {
+                    StageRelocation[] newGroup = new StageRelocation[group.length - 1];
+                    System.arraycopy(group, 0, newGroup, 0, i);
+                    System.arraycopy(group, i + 1, newGroup, i, group.length - i - 1);
+                    this.group = newGroup;
+                    return;
+                }
+            }
+        }
+    }
+
+    public void removeAllFromGroup() {
+        synchronized ( this.groupLock ) {
+            this.group = new StageRelocation[0];
+        }
+    }
+
+    public boolean isInGroup(Stage stage) {
+        StageRelocation[] group = this.group;
+        for ( int i = 0; i < group.length; i++ ) {
+            if ( group[i].stage() == stage ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int groupSize() {
+        return this.group.length;
     }
 
     public boolean isMovingNow() {
         return this.isMoving.get();
     }
 
+    public DragUpdates dragUpdates() {
+        return this.dragUpdates;
+    }
+
+    public double pointerVelocityX() {
+        return this.pointerSamples.velocityX(System.nanoTime());
+    }
+
+    public double pointerVelocityY() {
+        return this.pointerSamples.velocityY(System.nanoTime());
+    }
+
+    public void predictPointer(long latency, TimeUnit unit) {
+        this.predictPointer(latency, unit, DEFAULT_MAX_POINTER_PREDICTION);
+    }
+
+    /*
+     * Offsets the pointer of mouse drags by velocity * latency, limited to maxPrediction,
+     * before any interceptor runs, so bounds keeping and snapping always see the predicted
+     * position. The latency is the time from a pointer event to the stage position reaching
+     * the display. It cannot be observed from JavaFX and has to be measured for the target
+     * platform. The release is always applied without prediction.
+     */
+    public void predictPointer(long latency, TimeUnit unit, double maxPrediction) {
+        if ( latency <= 0 ) {
+            throw new IllegalArgumentException(format("latency cannot be %s!", latency));
+        }
+
+        this.maxPointerPrediction = maxPrediction;
+        this.pointerPredictionNanos = unit.toNanos(latency);
+    }
+
+    public void stopPointerPrediction() {
+        this.pointerPredictionNanos = NO_POINTER_PREDICTION;
+    }
+
+    public boolean isPointerPredicted() {
+        return this.pointerPredictionNanos != NO_POINTER_PREDICTION;
+    }
+
+    public long appliedMovesCount() {
+        return this.appliedMoves.get();
+    }
+
+    public long coalescedMovesCount() {
+        return this.coalescedMoves.get();
+    }
+
     public void intercept(Move.Interceptor interceptor) {
-        this.moveInterceptorsByMove.get(ANY_MOVE).add(interceptor);
+        synchronized ( this.moveInterceptorsByMove ) {
+            this.moveInterceptorsByMove.get(ANY_MOVE).add(interceptor);
+            this.rebuildInterceptorsChains();
+        }
+    }
+
+    /*
+     * Puts the interceptor at the head of the ANY_MOVE chain, ahead of interceptors that
+     * were added before, e.g. to adjust a move before bounds keepers clamp it.
+     */
+    public void interceptFirst(Move.Interceptor interceptor) {
+        synchronized ( this.moveInterceptorsByMove ) {
+            this.moveInterceptorsByMove.get(ANY_MOVE).add(0, interceptor);
+            this.rebuildInterceptorsChains();
+        }
     }
 
     public void intercept(Move.Interceptor interceptor, String behavior) {
-        List<Move.Interceptor> interceptors = this.moveInterceptorsByMove.get(behavior);
+        synchronized ( this.moveInterceptorsByMove ) {
+            this.addInterceptor(interceptor, behavior);
+            this.rebuildInterceptorsChains();
+        }
+    }
+
+    public void intercept(Move.Interceptor interceptor, String... behaviors) {
+        synchronized ( this.moveInterceptorsByMove ) {
+            for ( String behavior : behaviors ) {
+                this.addInterceptor(interceptor, behavior);
+            }
+            this.rebuildInterceptorsChains();
+        }
+    }
+
+    public void removeInterceptor(Move.Interceptor interceptor) {
+        synchronized ( this.moveInterceptorsByMove ) {
+            for ( List<Move.Interceptor> interceptors : this.moveInterceptorsByMove.values() ) {
+                interceptors.removeIf(existing -> existing == interceptor);
+            }
+            this.rebuildInterceptorsChains();
+        }
+    }
+
+    private void addInterceptor(Move.Interceptor interceptor, String behavior) {
+        String behaviorToken = behavior.intern();
+        List<Move.Interceptor> interceptors = this.moveInterceptorsByMove.get(behaviorToken);
 
         if ( isNull(interceptors) ) {
             interceptors = new ArrayList<>();
-            this.moveInterceptorsByMove.put(behavior, interceptors);
+            this.moveInterceptorsByMove.put(behaviorToken, interceptors);
         }
 
         interceptors.add(interceptor);
     }
 
-    public void intercept(Move.Interceptor interceptor, String... behaviors) {
-        for ( String behavior : behaviors ) {
-            this.intercept(interceptor, behavior);
+    private void rebuildInterceptorsChains() {
+        List<Move.Interceptor> anyMoveInterceptors = this.moveInterceptorsByMove.get(ANY_MOVE);
+        Move.Interceptor[] anyMoveChain = anyMoveInterceptors.toArray(new Move.Interceptor[0]);
+
+        Map<String, Move.Interceptor[]> chainsByMove = new HashMap<>();
+        chainsByMove.put(ANY_MOVE, anyMoveChain);
+
+        for ( Map.Entry<String, List<Move.Interceptor>> behaviorInterceptors : this.moveInterceptorsByMove.entrySet() ) {
+            String behavior = behaviorInterceptors.getKey();
+            if ( behavior.equals(ANY_MOVE) ) {
+                continue;
+            }
+
+            List<Move.Interceptor> chain = new ArrayList<>(anyMoveInterceptors);
+            chain.addAll(behaviorInterceptors.getValue());
+            chainsByMove.put(behavior, chain.toArray(new Move.Interceptor[0]));
+        }
+
+        this.interceptorsChainsByMove = Map.copyOf(chainsByMove);
+        this.anyMoveInterceptorsChain = anyMoveChain;
+        this.mouseMoveInterceptorsChain = chainsByMove.getOrDefault(MOVE_BY_MOUSE, anyMoveChain);
+    }
+
+    private Move.Interceptor[] interceptorsChainOf(String behavior) {
+        if ( behavior == ANY_MOVE ) {
+            return this.anyMoveInterceptorsChain;
+        }
+
+        if ( behavior == MOVE_BY_MOUSE ) {
+            return this.mouseMoveInterceptorsChain;
+        }
+
+        Move.Interceptor[] chain = this.interceptorsChainsByMove.get(behavior);
+
+        if ( isNull(chain) ) {
+            return this.anyMoveInterceptorsChain;
+        }
+
+        return chain;
+    }
+
+    /*
+     * Captures the current group layout. Moves are expressed in coordinates of the
+     * bounding box of this stage and all group members, so interceptors see the
+     * whole group; without group members the bounding box is the stage itself.
+     */
+    private void captureGroup() {
+        StageRelocation[] group = this.group;
+
+        double stageX = this.stage.getX();
+        double stageY = this.stage.getY();
+        double minX = stageX;
+        double minY = stageY;
+        double maxX = stageX + this.stage.getWidth();
+        double maxY = stageY + this.stage.getHeight();
+
+        for ( int i = 0; i < group.length; i++ ) {
+            Stage member = group[i].stage();
+            minX = Math.min(minX, member.getX());
+            minY = Math.min(minY, member.getY());
+            maxX = Math.max(maxX, member.getX() + member.getWidth());
+            maxY = Math.max(maxY, member.getY() + member.getHeight());
+        }
+
+        if ( this.capturedGroupOffsetsX.length != group.length ) {
+            this.capturedGroupOffsetsX = new double[group.length];
+            this.capturedGroupOffsetsY = new double[group.length];
+        }
+
+        for ( int i = 0; i < group.length; i++ ) {
+            Stage member = group[i].stage();
+            this.capturedGroupOffsetsX[i] = member.getX() - minX;
+            this.capturedGroupOffsetsY[i] = member.getY() - minY;
+        }
+
+        this.capturedGroup = group;
+        this.stageOffsetX = stageX - minX;
+        this.stageOffsetY = stageY - minY;
+        this.stageMove.sized(maxX - minX, maxY - minY);
+    }
+
+    private void relocateByStageMove() {
+        boolean ignoredX = this.stageMove.isIgnoredX();
+        boolean ignoredY = this.stageMove.isIgnoredY();
+        double groupX = this.stageMove.finalX();
+        double groupY = this.stageMove.finalY();
+
+        double x = ignoredX ? this.stage.getX() : groupX + this.stageOffsetX;
+        double y = ignoredY ? this.stage.getY() : groupY + this.stageOffsetY;
+
+        this.relocation.relocate(x, y);
+
+        StageRelocation[] group = this.capturedGroup;
+
+        for ( int i = 0; i < group.length; i++ ) {
+            StageRelocation member = group[i];
+            double memberX = ignoredX ? member.stage().getX() : groupX + this.capturedGroupOffsetsX[i];
+            double memberY = ignoredY ? member.stage().getY() : groupY + this.capturedGroupOffsetsY[i];
+            member.relocate(memberX, memberY);
         }
     }
 
-    private void onMousePressed(MouseEvent mouseEvent) {
+    private void runInterceptors(String behavior, Move.Interceptor[] chain) {
+        boolean moveChanged = false;
+
+        for ( int i = 0; i < chain.length; i++ ) {
+            Move.Interceptor interceptor = chain[i];
+            if ( moveChanged ) {
+                interceptor.moveChangedByPreviousInterceptor();
+            }
+            interceptor.intercept(behavior, this.stageMove, this.mouseMove);
+            if ( ! moveChanged && (this.stageMove.yChanged || this.stageMove.xChanged) ) {
+                moveChanged = true;
+            }
+            if ( this.stageMove.isIgnored() ) {
+                break;
+            }
+        }
+    }
+
+    void onMousePressed(MouseEvent mouseEvent) {
         if ( ! PRIMARY.equals(mouseEvent.getButton()) ) {
             return;
         }
@@ -386,8 +905,10 @@ public class StageMoving {
             return;
         }
 
-        this.xInitialDelta = this.stage.getX() - x;
-        this.yInitialDelta = this.stage.getY() - y;
+        this.captureGroup();
+
+        this.xInitialDelta = this.stage.getX() - this.stageOffsetX - x;
+        this.yInitialDelta = this.stage.getY() - this.stageOffsetY - y;
 
         this.stageMove.startAt(
                 x + this.xInitialDelta,
@@ -396,10 +917,13 @@ public class StageMoving {
         this.mouseMove.startX = x;
         this.mouseMove.startY = y;
 
+        this.pointerSamples.clear();
+        this.pointerSamples.add(x, y, System.nanoTime());
+
         mouseEvent.consume();
     }
 
-    private void onMouseDragged(MouseEvent mouseEvent) {
+    void onMouseDragged(MouseEvent mouseEvent) {
         if ( ! this.isStageMovable.get() ) {
             return;
         }
@@ -428,73 +952,95 @@ public class StageMoving {
         double x = mouseEvent.getScreenX();
         double y = mouseEvent.getScreenY();
 
-        this.stageMove.set(
-                x + this.xInitialDelta,
-                y + this.yInitialDelta);
-
-        this.mouseMove.x = x;
-        this.mouseMove.y = y;
+        this.pointerSamples.add(x, y, System.nanoTime());
 
         if ( MOUSE_PRESSED.equals(lastEventNow) ) {
+            this.stageMove.set(
+                    x + this.xInitialDelta,
+                    y + this.yInitialDelta);
+
+            this.mouseMove.x = x;
+            this.mouseMove.y = y;
+
             this.lastEvent.set(MOUSE_DRAGGED);
             this.isMoving.set(true);
-            this.beforeMoveCallbacks.forEach(callback -> {
-                callback.accept(MOVE_BY_MOUSE, this.stageMove, this.mouseMove);
-            });
+            this.runCallbacks(this.beforeMoveCallbacks, MOVE_BY_MOUSE);
+
+            if ( this.dragUpdates.is(ONCE_PER_PULSE) ) {
+                this.dragPulses.start();
+            }
         }
         this.lastEvent.set(MOUSE_DRAGGED);
         this.isMoving.set(true);
 
-        boolean moveChanged = false;
-        boolean moveNotIgnored = true;
+        if ( this.dragUpdates.is(ONCE_PER_PULSE) ) {
+            if ( this.hasPendingDrag ) {
+                this.coalescedMoves.incrementAndGet();
+            }
+            this.pendingDragX = x;
+            this.pendingDragY = y;
+            this.hasPendingDrag = true;
+        }
+        else {
+            this.applyDrag(x, y);
+        }
 
-        List<Move.Interceptor> defaultInterceptors = this.moveInterceptorsByMove.get(ANY_MOVE);
+        mouseEvent.consume();
+    }
 
-        if ( nonEmpty(defaultInterceptors) ) {
-            for ( Move.Interceptor interceptor : defaultInterceptors ) {
-                if ( moveChanged ) {
-                    interceptor.moveChangedByPreviousInterceptor();
-                }
-                interceptor.intercept(MOVE_BY_MOUSE, this.stageMove, this.mouseMove);
-                if ( ! moveChanged && (this.stageMove.yChanged && this.stageMove.xChanged) ) {
-                    moveChanged = true;
-                }
-                if ( this.stageMove.isIgnored() ) {
-                    moveNotIgnored = false;
-                    break;
-                }
-            }
+    private void applyPendingDrag() {
+        if ( ! this.hasPendingDrag ) {
+            return;
         }
 
-        List<Move.Interceptor> mouseInterceptors = this.moveInterceptorsByMove.getOrDefault(MOVE_BY_MOUSE, emptyList());
+        this.hasPendingDrag = false;
 
-        if ( moveNotIgnored && nonEmpty(mouseInterceptors) ) {
-            for ( Move.Interceptor interceptor : mouseInterceptors ) {
-                if ( moveChanged ) {
-                    interceptor.moveChangedByPreviousInterceptor();
-                }
-                interceptor.intercept(MOVE_BY_MOUSE, this.stageMove, this.mouseMove);
-                if ( ! moveChanged && (this.stageMove.yChanged && this.stageMove.xChanged) ) {
-                    moveChanged = true;
-                }
-                if ( this.stageMove.isIgnored() ) {
-                    break;
-                }
-            }
+        if ( ! this.isStageMovable.get() ) {
+            return;
         }
 
-        if ( ! this.stageMove.isIgnoredX() ) {
-            this.stage.setX(this.stageMove.finalX());
+        this.applyDrag(this.pendingDragX, this.pendingDragY);
+    }
+
+    private void finishPendingDrag() {
+        if ( this.dragUpdates.is(ONCE_PER_PULSE) ) {
+            this.dragPulses.stop();
+            this.applyPendingDrag();
         }
+    }
 
-        if ( ! this.stageMove.isIgnoredY() ) {
-            this.stage.setY(this.stageMove.finalY());
+    private void applyDrag(double x, double y) {
+        double pointerX = x;
+        double pointerY = y;
+        long predictionNanos = this.pointerPredictionNanos;
+
+        if ( predictionNanos != NO_POINTER_PREDICTION ) {
+            long now = System.nanoTime();
+            double seconds = predictionNanos / 1_000_000_000.0;
+            double maxPrediction = this.maxPointerPrediction;
+            pointerX += limited(this.pointerSamples.velocityX(now) * seconds, maxPrediction);
+            pointerY += limited(this.pointerSamples.velocityY(now) * seconds, maxPrediction);
         }
 
-        mouseEvent.consume();
+        this.stageMove.set(
+                pointerX + this.xInitialDelta,
+                pointerY + this.yInitialDelta);
+
+        this.mouseMove.x = x;
+        this.mouseMove.y = y;
+
+        this.runInterceptors(MOVE_BY_MOUSE, this.mouseMoveInterceptorsChain);
+
+        this.relocateByStageMove();
+
+        this.appliedMoves.incrementAndGet();
     }
 
-    private void onMouseReleased(MouseEvent mouseEvent) {
+    private static double limited(double prediction, double maxPrediction) {
+        return max(-maxPrediction, min(maxPrediction, prediction));
+    }
+
+    void onMouseReleased(MouseEvent mouseEvent) {
         if ( ! PRIMARY.equals(mouseEvent.getButton()) ) {
             return;
         }
@@ -514,6 +1060,9 @@ public class StageMoving {
 
         this.isMovableWhenPressed.set(null);
 
+        this.finishPendingDrag();
+        this.pointerSamples.clear();
+
         if ( ! this.isStageMovable.get() ) {
             return;
         }
@@ -521,17 +1070,24 @@ public class StageMoving {
         double x = mouseEvent.getScreenX();
         double y = mouseEvent.getScreenY();
 
+        /*
+         * The drag is settled at the release point with the pointer samples already
+         * cleared, so no prediction offset stays applied after the drag.
+         */
+        if ( MOUSE_DRAGGED.equals(this.lastEvent.get()) ) {
+            this.applyDrag(x, y);
+        }
+
         this.stageMove.set(
-                this.stage.getX(),
-                this.stage.getY());
+                this.stage.getX() - this.stageOffsetX,
+                this.stage.getY() - this.stageOffsetY);
 
         this.mouseMove.x = x;
         this.mouseMove.y = y;
 
         if ( MOUSE_DRAGGED.equals(this.lastEvent.get()) ) {
-            this.afterMoveCallbacks.forEach(callback -> {
-                callback.accept(MOVE_BY_MOUSE, this.stageMove, this.mouseMove);
-            });
+            this.runCallbacks(this.afterMoveCallbacks, MOVE_BY_MOUSE);
+            this.publishToAsyncCallbacks(MOVE_BY_MOUSE);
         }
 
         mouseEvent.consume();
@@ -539,12 +1095,127 @@ public class StageMoving {
         this.lastEvent.set(MOUSE_RELEASED);
     }
     
+    /*
+     * Ends a drag whose release will not come anymore, as if the mouse was released at
+     * the last applied position: drag pulses stop and after-move callbacks see the end.
+     */
+    private void endDragInProgress() {
+        Boolean isMovableWhenPressedNow = this.isMovableWhenPressed.getAndSet(null);
+
+        if ( isNull(isMovableWhenPressedNow) ) {
+            return;
+        }
+
+        if ( isMovableWhenPressedNow ) {
+            this.finishPendingDrag();
+            this.pointerSamples.clear();
+
+            if ( MOUSE_DRAGGED.equals(this.lastEvent.get()) ) {
+                this.stageMove.set(
+                        this.stage.getX() - this.stageOffsetX,
+                        this.stage.getY() - this.stageOffsetY);
+
+                this.runCallbacks(this.afterMoveCallbacks, MOVE_BY_MOUSE);
+                this.publishToAsyncCallbacks(MOVE_BY_MOUSE);
+            }
+        }
+
+        this.isMoving.set(false);
+        this.lastEvent.set(MOUSE_RELEASED);
+    }
+
     public void afterMove(Move.Callback callback) {
-        this.afterMoveCallbacks.add(callback);
+        synchronized ( this.callbacksLock ) {
+            this.afterMoveCallbacks = appended(this.afterMoveCallbacks, callback);
+        }
+    }
+
+    public void removeAfterMove(Move.Callback callback) {
+        synchronized ( this.callbacksLock ) {
+            this.afterMoveCallbacks = removed(this.afterMoveCallbacks, callback);
+        }
+    }
+
+    /*
+     * Callbacks are invoked on a shared background executor with immutable move snapshots.
+     * If several moves happen before the callbacks get to run, only the latest one is passed.
+     */
+    public void afterMoveAsync(Move.Callback callback) {
+        synchronized ( this.callbacksLock ) {
+            this.afterMoveAsyncCallbacks = appended(this.afterMoveAsyncCallbacks, callback);
+        }
+    }
+
+    public long coalescedAsyncCallbacksCount() {
+        return this.coalescedAsyncCallbacks.get();
+    }
+
+    private void publishToAsyncCallbacks(String behavior) {
+        if ( this.afterMoveAsyncCallbacks.length == 0 ) {
+            return;
+        }
+
+        MovedSnapshot previous = this.pendingMovedSnapshot.getAndSet(
+                new MovedSnapshot(behavior, this.stageMove, this.mouseMove));
+
+        if ( nonNull(previous) ) {
+            this.coalescedAsyncCallbacks.incrementAndGet();
+        }
+
+        if ( this.isAsyncCallbacksDrainScheduled.compareAndSet(false, true) ) {
+            AsyncCallbacksExecutor.EXECUTOR.execute(this::drainAsyncCallbacks);
+        }
+    }
+
+    private void drainAsyncCallbacks() {
+        do {
+            MovedSnapshot moved;
+            while ( (moved = this.pendingMovedSnapshot.getAndSet(null)) != null ) {
+                Move.Callback[] callbacks = this.afterMoveAsyncCallbacks;
+                for ( int i = 0; i < callbacks.length; i++ ) {
+                    try {
+                        callbacks[i].accept(moved.behavior, moved.stageMove, moved.mouseMove);
+                    }
+                    catch (Throwable t) {
+                        log.error(t.getMessage(), t);
+                    }
+                }
+            }
+
+            this.isAsyncCallbacksDrainScheduled.set(false);
+        }
+        while ( this.pendingMovedSnapshot.get() != null && this.isAsyncCallbacksDrainScheduled.compareAndSet(false, true) );
     }
 
     public void beforeMove(Move.Callback callback) {
-        this.beforeMoveCallbacks.add(callback);
+        synchronized ( this.callbacksLock ) {
+            this.beforeMoveCallbacks = appended(this.beforeMoveCallbacks, callback);
+        }
+    }
+
+    private static Move.Callback[] appended(Move.Callback[] callbacks, Move.Callback callback) {
+        Move.Callback[] newCallbacks = Arrays.copyOf(callbacks, callbacks.length + 1);
+        newCallbacks[callbacks.length] = callback;
+        return newCallbacks;
+    }
+
+    private static Move.Callback[] removed(Move.Callback[] callbacks, Move.Callback callback) {
+        for ( int i = 0; i < callbacks.length; i++ ) {
+            if ( callbacks[i] == callback ) {
+                Move.Callback[] newCallbacks = new Move.Callback[callbacks.length - 1];
+                System.arraycopy(callbacks, 0, newCallbacks, 0, i);
+                System.arraycopy(callbacks, i + 1, newCallbacks, i, callbacks.length - i - 1);
+                return newCallbacks;
+            }
+        }
+
+        return callbacks;
+    }
+
+    private void runCallbacks(Move.Callback[] callbacks, String behavior) {
+        for ( int i = 0; i < callbacks.length; i++ ) {
+            callbacks[i].accept(behavior, this.stageMove, this.mouseMove);
+        }
     }
 
     public void move(double x, double y) {
@@ -560,76 +1231,32 @@ public class StageMoving {
         double startX = this.stage.getX();
         double startY = this.stage.getY();
 
-        this.stageMove.startAt(startX, startY);
+        this.captureGroup();
+
+        this.stageMove.startAt(startX - this.stageOffsetX, startY - this.stageOffsetY);
 
         this.mouseMove.startX = startX;
         this.mouseMove.startY = startY;
 
-        this.stageMove.set(x, y);
+        this.stageMove.set(x - this.stageOffsetX, y - this.stageOffsetY);
 
         this.mouseMove.x = x;
         this.mouseMove.y = y;
 
-        this.beforeMoveCallbacks.forEach(callback -> {
-            callback.accept(behavior, this.stageMove, this.mouseMove);
-        });
-
-        boolean moveChanged = false;
-        boolean moveNotIgnored = true;
-
-        List<Move.Interceptor> defaultInterceptors = this.moveInterceptorsByMove.get(ANY_MOVE);
-
-        if ( nonEmpty(defaultInterceptors) ) {
-            for ( Move.Interceptor interceptor : defaultInterceptors ) {
-                if ( moveChanged ) {
-                    interceptor.moveChangedByPreviousInterceptor();
-                }
-                interceptor.intercept(behavior, this.stageMove, this.mouseMove);
-                if ( ! moveChanged && (this.stageMove.yChanged || this.stageMove.xChanged) ) {
-                    moveChanged = true;
-                }
-                if ( this.stageMove.isIgnored() ) {
-                    moveNotIgnored = false;
-                    break;
-                }
-            }
-        }
+        this.runCallbacks(this.beforeMoveCallbacks, behavior);
 
-        if ( moveNotIgnored && ! behavior.equals(ANY_MOVE) ) {
-            List<Move.Interceptor> behaviorInterceptors = this.moveInterceptorsByMove.getOrDefault(behavior, emptyList());
+        this.runInterceptors(behavior, this.interceptorsChainOf(behavior));
 
-            if ( nonEmpty(behaviorInterceptors) ) {
-                for ( Move.Interceptor interceptor : behaviorInterceptors ) {
-                    if ( moveChanged ) {
-                        interceptor.moveChangedByPreviousInterceptor();
-                    }
-                    interceptor.intercept(behavior, this.stageMove, this.mouseMove);
-                    if ( ! moveChanged && (this.stageMove.yChanged || this.stageMove.xChanged) ) {
-                        moveChanged = true;
-                    }
-                    if ( this.stageMove.isIgnored() ) {
-                        break;
-                    }
-                }
-            }
-        }
-
-        if ( ! this.stageMove.isIgnoredX() ) {
-            this.stage.setX(this.stageMove.finalX());
-        }
-        if ( ! this.stageMove.isIgnoredY() ) {
-            this.stage.setY(this.stageMove.finalY());
-        }
+        this.relocateByStageMove();
 
         this.stageMove.set(
-                this.stage.getX(),
-                this.stage.getY());
+                this.stage.getX() - this.stageOffsetX,
+                this.stage.getY() - this.stageOffsetY);
 
         this.isMoving.set(false);
 
-        this.afterMoveCallbacks.forEach(callback -> {
-            callback.accept(behavior, this.stageMove, this.mouseMove);
-        });
+        this.runCallbacks(this.afterMoveCallbacks, behavior);
+        this.publishToAsyncCallbacks(behavior);
     }
 
 //    public void move(double x, double y, String... moves) {
@@ -0,0 +1,92 @@
+package diarsid.support.javafx.stage;
+
+import java.util.Arrays;
+
+import javafx.stage.Stage;
+
+public class StageRelocation {
+
+    public interface Listener {
+
+        void relocated(Stage stage);
+    }
+
+    private final Stage stage;
+    private final Object listenersLock;
+    private volatile Listener[] listeners;
+    private boolean isRelocating;
+
+    public StageRelocation(Stage stage) {
+        this.stage = stage;
+        this.listenersLock = new Object();
+        this.listeners = new Listener[0];
+        this.isRelocating = false;
+    }
+
+    public Stage stage() {
+        return this.stage;
+    }
+
+    public boolean isRelocatingNow() {
+        return this.isRelocating;
+    }
+
+    public void onRelocated(Listener listener) {
+        synchronized ( this.listenersLock ) {
+            Listener[] newListeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+            newListeners[this.listeners.length] = listener;
+            this.listeners = newListeners;
+        }
+    }
+
+    public void removeOnRelocated(Listener listener) {
+        synchronized ( this.listenersLock ) {
+            Listener[] newListeners = new Listener[this.listeners.length];
+            int count = 0;
+            for ( Listener existing : this.listeners ) {
+                if ( existing != listener ) {
+                    newListeners[count] = existing;
+                    count++;
+                }
+            }
+            this.listeners = Arrays.copyOf(newListeners, count);
+        }
+    }
+
+    public boolean relocateX(double x) {
+        return this.relocate(x, this.stage.getY());
+    }
+
+    public boolean relocateY(double y) {
+        return this.relocate(this.stage.getX(), y);
+    }
+
+    public boolean relocate(double x, double y) {
+        boolean xChanged = Double.compare(this.stage.getX(), x) != 0;
+        boolean yChanged = Double.compare(this.stage.getY(), y) != 0;
+
+        if ( ! xChanged && ! yChanged ) {
+            return false;
+        }
+
+        this.isRelocating = true;
+        try {
+            if ( xChanged ) {
+                this.stage.setX(x);
+            }
+            if ( yChanged ) {
+                this.stage.setY(y);
+            }
+        }
+        finally {
+            this.isRelocating = false;
+        }
+
+        Listener[] listenersNow = this.listeners;
+        for ( int i = 0; i < listenersNow.length; i++ ) {
+            listenersNow[i].relocated(this.stage);
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,289 @@
+package diarsid.support.javafx.stage;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.stage.Stage;
+
+import diarsid.support.javafx.geometry.Screen;
+import diarsid.support.javafx.geometry.Screens;
+
+import static java.lang.Math.abs;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import static diarsid.support.javafx.geometry.Screen.Type.SYSTEM;
+import static diarsid.support.javafx.stage.StageMoving.MOVE_BY_MOUSE;
+
+public class StagesEdgeSnapping {
+
+    public static final double DEFAULT_THRESHOLD = 12;
+
+    private final class Snapped {
+
+        final Stage stage;
+        final StageMoving stageMoving;
+        final StageMoving.Move.Interceptor interceptor;
+        final StageRelocation.Listener relocationListener;
+        final StageMoving.Move.Callback afterMoveCallback;
+        final Predicate<Object> isOwnEdge;
+
+        Snapped(Stage stage, StageMoving stageMoving) {
+            this.stage = stage;
+            this.stageMoving = stageMoving;
+
+            if ( nonNull(stageMoving) ) {
+                /*
+                 * Registered at the head of the ANY_MOVE chain so that snapping runs before
+                 * any bounds keeping interceptor and the snapped position is clamped afterwards.
+                 */
+                this.interceptor = (behavior, stageMove, mouseMove) -> {
+                    if ( MOVE_BY_MOUSE.equals(behavior) ) {
+                        StagesEdgeSnapping.this.snap(this, stageMove);
+                    }
+                };
+                this.isOwnEdge = (owner) ->
+                        owner == this.stage || (owner instanceof Stage && this.stageMoving.isInGroup((Stage) owner));
+                this.relocationListener = (relocatedStage) -> {
+                    if ( ! this.stageMoving.isMovingNow() ) {
+                        StagesEdgeSnapping.this.reindex(this);
+                    }
+                };
+                this.afterMoveCallback = (behavior, stageMove, mouseMove) -> {
+                    if ( this.isRegistered() ) {
+                        StagesEdgeSnapping.this.reindex(this);
+                    }
+                };
+            }
+            else {
+                this.interceptor = null;
+                this.relocationListener = null;
+                this.afterMoveCallback = null;
+                this.isOwnEdge = (owner) -> owner == this.stage;
+            }
+        }
+
+        boolean isRegistered() {
+            return StagesEdgeSnapping.this.snappedByStages.get(this.stage) == this;
+        }
+    }
+
+    private final EdgeIndex xEdges;
+    private final EdgeIndex yEdges;
+    private final Map<Stage, Snapped> snappedByStages;
+    private final ChangeListener<Number> positionListener;
+    private final ChangeListener<Number> sizeListener;
+    private final Runnable screensListener;
+    private final Object screensOwner;
+    private volatile double threshold;
+
+    public StagesEdgeSnapping() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public StagesEdgeSnapping(double threshold) {
+        this.xEdges = new EdgeIndex();
+        this.yEdges = new EdgeIndex();
+        this.snappedByStages = new IdentityHashMap<>();
+        this.screensOwner = new Object();
+        this.threshold = threshold;
+
+        this.positionListener = (property, oldV, newV) -> {
+            this.reindexStageOf(property);
+        };
+
+        this.sizeListener = (property, oldV, newV) -> {
+            this.reindexStageOf(property);
+        };
+
+        this.screensListener = this::reindexScreens;
+
+        this.reindexScreens();
+        Screens.onChange(this.screensListener);
+    }
+
+    public double threshold() {
+        return this.threshold;
+    }
+
+    public void setThreshold(double threshold) {
+        this.threshold = threshold;
+    }
+
+    public void register(StageMoving stageMoving) {
+        Stage stage = stageMoving.stage();
+
+        if ( this.snappedByStages.containsKey(stage) ) {
+            return;
+        }
+
+        Snapped snapped = new Snapped(stage, stageMoving);
+        this.snappedByStages.put(stage, snapped);
+
+        stage.widthProperty().addListener(this.sizeListener);
+        stage.heightProperty().addListener(this.sizeListener);
+        stageMoving.relocation().onRelocated(snapped.relocationListener);
+        stageMoving.afterMove(snapped.afterMoveCallback);
+        stageMoving.interceptFirst(snapped.interceptor);
+
+        this.reindex(snapped);
+    }
+
+    public void register(Stage stage) {
+        if ( this.snappedByStages.containsKey(stage) ) {
+            return;
+        }
+
+        Snapped snapped = new Snapped(stage, null);
+        this.snappedByStages.put(stage, snapped);
+
+        stage.xProperty().addListener(this.positionListener);
+        stage.yProperty().addListener(this.positionListener);
+        stage.widthProperty().addListener(this.sizeListener);
+        stage.heightProperty().addListener(this.sizeListener);
+
+        this.reindex(snapped);
+    }
+
+    public void unregister(Stage stage) {
+        Snapped snapped = this.snappedByStages.remove(stage);
+
+        if ( isNull(snapped) ) {
+            return;
+        }
+
+        stage.widthProperty().removeListener(this.sizeListener);
+        stage.heightProperty().removeListener(this.sizeListener);
+
+        if ( nonNull(snapped.stageMoving) ) {
+            snapped.stageMoving.removeInterceptor(snapped.interceptor);
+            snapped.stageMoving.removeAfterMove(snapped.afterMoveCallback);
+            snapped.stageMoving.relocation().removeOnRelocated(snapped.relocationListener);
+        }
+        else {
+            stage.xProperty().removeListener(this.positionListener);
+            stage.yProperty().removeListener(this.positionListener);
+        }
+
+        this.xEdges.removeAllOf(stage);
+        this.yEdges.removeAllOf(stage);
+    }
+
+    public void unregisterAll() {
+        for ( Stage stage : this.snappedByStages.keySet().toArray(new Stage[0]) ) {
+            this.unregister(stage);
+        }
+    }
+
+    public void destroy() {
+        this.unregisterAll();
+        Screens.removeOnChange(this.screensListener);
+    }
+
+    public boolean isRegistered(Stage stage) {
+        return this.snappedByStages.containsKey(stage);
+    }
+
+    public int registeredCount() {
+        return this.snappedByStages.size();
+    }
+
+    private void reindexStageOf(ObservableValue<? extends Number> property) {
+        Stage stage = (Stage) ((ReadOnlyProperty<?>) property).getBean();
+        Snapped snapped = this.snappedByStages.get(stage);
+
+        if ( isNull(snapped) ) {
+            return;
+        }
+
+        if ( nonNull(snapped.stageMoving) && snapped.stageMoving.isMovingNow() ) {
+            return;
+        }
+
+        this.reindex(snapped);
+    }
+
+    private void reindex(Snapped snapped) {
+        Stage stage = snapped.stage;
+
+        this.xEdges.removeAllOf(stage);
+        this.yEdges.removeAllOf(stage);
+
+        double left = stage.getX();
+        double top = stage.getY();
+        double right = left + stage.getWidth();
+        double bottom = top + stage.getHeight();
+
+        this.xEdges.add(left, top, bottom, stage);
+        this.xEdges.add(right, top, bottom, stage);
+        this.yEdges.add(top, left, right, stage);
+        this.yEdges.add(bottom, left, right, stage);
+    }
+
+    private void reindexScreens() {
+        this.xEdges.removeAllOf(this.screensOwner);
+        this.yEdges.removeAllOf(this.screensOwner);
+
+        for ( Screens.Monitor monitor : Screens.all() ) {
+            Screen screen = monitor.screenOf(SYSTEM);
+
+            double left = screen.anchor().x();
+            double top = screen.anchor().y();
+            double right = screen.oppositeAnchorX();
+            double bottom = screen.oppositeAnchorY();
+
+            this.xEdges.add(left, top, bottom, this.screensOwner);
+            this.xEdges.add(right, top, bottom, this.screensOwner);
+            this.yEdges.add(top, left, right, this.screensOwner);
+            this.yEdges.add(bottom, left, right, this.screensOwner);
+        }
+    }
+
+    private void snap(Snapped snapped, StageMoving.Move.Changeable stageMove) {
+        double width = BoundsClamping.widthOf(stageMove, snapped.stage);
+        double height = BoundsClamping.heightOf(stageMove, snapped.stage);
+
+        if ( ! stageMove.isIgnoredX() ) {
+            double x = stageMove.finalX();
+            double y = stageMove.finalY();
+            double snappedX = this.snapped(this.xEdges, x, width, y, y + height, snapped.isOwnEdge);
+            if ( snappedX != x ) {
+                stageMove.changeX(snappedX);
+            }
+        }
+
+        if ( ! stageMove.isIgnoredY() ) {
+            double x = stageMove.finalX();
+            double y = stageMove.finalY();
+            double snappedY = this.snapped(this.yEdges, y, height, x, x + width, snapped.isOwnEdge);
+            if ( snappedY != y ) {
+                stageMove.changeY(snappedY);
+            }
+        }
+    }
+
+    private double snapped(EdgeIndex edges, double start, double length, double spanFrom, double spanTo, Predicate<Object> isOwnEdge) {
+        double threshold = this.threshold;
+        double end = start + length;
+
+        double nearStart = edges.nearest(start, threshold, spanFrom - threshold, spanTo + threshold, isOwnEdge);
+        double nearEnd = edges.nearest(end, threshold, spanFrom - threshold, spanTo + threshold, isOwnEdge);
+
+        boolean hasStart = ! Double.isNaN(nearStart);
+        boolean hasEnd = ! Double.isNaN(nearEnd);
+
+        if ( hasStart && ( ! hasEnd || abs(nearStart - start) <= abs(nearEnd - end) ) ) {
+            return nearStart;
+        }
+
+        if ( hasEnd ) {
+            return nearEnd - length;
+        }
+
+        return start;
+    }
+}
@@ -0,0 +1,255 @@
+package diarsid.support.javafx.stage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javafx.animation.AnimationTimer;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.geometry.Insets;
+import javafx.stage.Stage;
+
+import diarsid.desktop.ui.geometry.Rectangle;
+import diarsid.support.objects.references.Possible;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import static diarsid.support.objects.references.References.simplePossibleButEmpty;
+
+public class StagesInBoundsKeeper {
+
+    private final class Kept {
+
+        final Stage stage;
+        final StageRelocation relocation;
+        final StageMoving stageMoving;
+        final Rectangle bounds;
+        final StageMoving.Move.Interceptor interceptor;
+        final StageRelocation.Listener relocationListener;
+        Insets insets;
+        boolean isDirty;
+
+        Kept(Stage stage, StageRelocation relocation, StageMoving stageMoving, Rectangle bounds) {
+            this.stage = stage;
+            this.relocation = relocation;
+            this.stageMoving = stageMoving;
+            this.bounds = bounds;
+            this.insets = Insets.EMPTY;
+            this.isDirty = false;
+
+            if ( nonNull(stageMoving) ) {
+                this.interceptor = (behavior, stageMove, mouseMove) -> {
+                    BoundsClamping.clamp(this.bounds, stageMove, this.stage, this.insets);
+                };
+                this.relocationListener = (relocatedStage) -> {
+                    if ( ! this.stageMoving.isMovingNow() ) {
+                        StagesInBoundsKeeper.this.markDirty(this);
+                    }
+                };
+            }
+            else {
+                this.interceptor = null;
+                this.relocationListener = (relocatedStage) -> {
+                    StagesInBoundsKeeper.this.markDirty(this);
+                };
+            }
+        }
+
+        boolean isMovingNow() {
+            return this.relocation.isRelocatingNow() || (nonNull(this.stageMoving) && this.stageMoving.isMovingNow());
+        }
+    }
+
+    private final Possible<Rectangle> sharedBounds;
+    private final Map<Stage, Kept> keptByStages;
+    private final List<Kept> dirty;
+    private final ChangeListener<Number> positionListener;
+    private final ChangeListener<Number> sizeListener;
+    private final AnimationTimer enforcementPulses;
+    private boolean isEnforcing;
+
+    public StagesInBoundsKeeper() {
+        this.sharedBounds = simplePossibleButEmpty();
+        this.keptByStages = new IdentityHashMap<>();
+        this.dirty = new ArrayList<>();
+
+        this.positionListener = (property, oldV, newV) -> {
+            Kept kept = this.keptOf(property);
+            if ( isNull(kept) || kept.isMovingNow() ) {
+                return;
+            }
+            this.markDirty(kept);
+        };
+
+        this.sizeListener = (property, oldV, newV) -> {
+            Kept kept = this.keptOf(property);
+            if ( isNull(kept) || kept.relocation.isRelocatingNow() ) {
+                return;
+            }
+            this.markDirty(kept);
+        };
+
+        this.enforcementPulses = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                StagesInBoundsKeeper.this.onPulse();
+            }
+        };
+    }
+
+    public StagesInBoundsKeeper(Rectangle sharedBounds) {
+        this();
+        this.sharedBounds.resetTo(sharedBounds);
+    }
+
+    public void register(StageMoving stageMoving) {
+        this.register(stageMoving, this.sharedBounds.orThrow());
+    }
+
+    public void register(StageMoving stageMoving, Rectangle bounds) {
+        Kept kept = new Kept(stageMoving.stage(), stageMoving.relocation(), stageMoving, bounds);
+        this.add(kept);
+        stageMoving.intercept(kept.interceptor);
+    }
+
+    public void register(Stage stage) {
+        this.register(stage, this.sharedBounds.orThrow());
+    }
+
+    public void register(Stage stage, Rectangle bounds) {
+        this.add(new Kept(stage, new StageRelocation(stage), null, bounds));
+    }
+
+    public void setStageInsets(Stage stage, Insets insets) {
+        Kept kept = this.keptByStages.get(stage);
+        if ( nonNull(kept) ) {
+            kept.insets = insets;
+            this.markDirty(kept);
+        }
+    }
+
+    public boolean isRegistered(Stage stage) {
+        return this.keptByStages.containsKey(stage);
+    }
+
+    public int registeredCount() {
+        return this.keptByStages.size();
+    }
+
+    public void unregister(Stage stage) {
+        Kept kept = this.keptByStages.remove(stage);
+
+        if ( isNull(kept) ) {
+            return;
+        }
+
+        stage.xProperty().removeListener(this.positionListener);
+        stage.yProperty().removeListener(this.positionListener);
+        stage.widthProperty().removeListener(this.sizeListener);
+        stage.heightProperty().removeListener(this.sizeListener);
+        kept.relocation.removeOnRelocated(kept.relocationListener);
+
+        if ( nonNull(kept.stageMoving) ) {
+            kept.stageMoving.removeInterceptor(kept.interceptor);
+        }
+
+        if ( kept.isDirty ) {
+            kept.isDirty = false;
+            this.dirty.remove(kept);
+        }
+    }
+
+    public void unregisterAll() {
+        for ( Stage stage : new ArrayList<>(this.keptByStages.keySet()) ) {
+            this.unregister(stage);
+        }
+    }
+
+    private void add(Kept kept) {
+        Stage stage = kept.stage;
+
+        if ( this.keptByStages.containsKey(stage) ) {
+            this.unregister(stage);
+        }
+
+        this.keptByStages.put(stage, kept);
+
+        stage.xProperty().addListener(this.positionListener);
+        stage.yProperty().addListener(this.positionListener);
+        stage.widthProperty().addListener(this.sizeListener);
+        stage.heightProperty().addListener(this.sizeListener);
+        kept.relocation.onRelocated(kept.relocationListener);
+
+        this.markDirty(kept);
+    }
+
+    private Kept keptOf(ObservableValue<? extends Number> property) {
+        Object bean = ((ReadOnlyProperty<?>) property).getBean();
+        return this.keptByStages.get(bean);
+    }
+
+    private void markDirty(Kept kept) {
+        if ( kept.isDirty || this.isEnforcing ) {
+            return;
+        }
+
+        kept.isDirty = true;
+        this.dirty.add(kept);
+
+        if ( this.dirty.size() == 1 ) {
+            this.enforcementPulses.start();
+        }
+    }
+
+    /*
+     * Stages that are being moved now stay dirty and are checked again on the next
+     * pulse, so a stage left out of bounds by a move is enforced once the move ends.
+     */
+    private void onPulse() {
+        int stillDirty = 0;
+
+        this.isEnforcing = true;
+        try {
+            for ( int i = 0; i < this.dirty.size(); i++ ) {
+                Kept kept = this.dirty.get(i);
+                if ( kept.isMovingNow() ) {
+                    this.dirty.set(stillDirty, kept);
+                    stillDirty++;
+                }
+                else {
+                    kept.isDirty = false;
+                    this.enforceBounds(kept);
+                }
+            }
+        }
+        finally {
+            this.isEnforcing = false;
+            this.dirty.subList(stillDirty, this.dirty.size()).clear();
+        }
+
+        if ( this.dirty.isEmpty() ) {
+            this.enforcementPulses.stop();
+        }
+    }
+
+    private void enforceBounds(Kept kept) {
+        Stage stage = kept.stage;
+
+        double stageX = stage.getX();
+        double stageY = stage.getY();
+        double stageWidth = stage.getWidth();
+        double stageHeight = stage.getHeight();
+
+        if ( BoundsClamping.isInside(kept.bounds, stageX, stageY, stageWidth, stageHeight, kept.insets) ) {
+            return;
+        }
+
+        kept.relocation.relocate(
+                BoundsClamping.clampedX(kept.bounds, stageX, stageWidth, kept.insets),
+                BoundsClamping.clampedY(kept.bounds, stageY, stageHeight, kept.insets));
+    }
+}
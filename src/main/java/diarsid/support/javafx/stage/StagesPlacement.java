@@ -0,0 +1,350 @@
+package diarsid.support.javafx.stage;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.stage.Stage;
+
+import diarsid.desktop.ui.geometry.Anchor;
+import diarsid.support.javafx.geometry.Screen;
+import diarsid.support.javafx.geometry.Screens;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import static diarsid.support.javafx.geometry.Screen.Type.SYSTEM;
+
+public class StagesPlacement {
+
+    private final class Placed {
+
+        final Stage stage;
+        final StageMoving stageMoving;
+        final StageRelocation.Listener relocationListener;
+        final StageMoving.Move.Callback afterMoveCallback;
+        boolean isOccupying;
+        double x;
+        double y;
+        double width;
+        double height;
+
+        Placed(Stage stage, StageMoving stageMoving) {
+            this.stage = stage;
+            this.stageMoving = stageMoving;
+            this.isOccupying = false;
+
+            if ( nonNull(stageMoving) ) {
+                this.relocationListener = (relocatedStage) -> {
+                    if ( ! this.stageMoving.isMovingNow() ) {
+                        StagesPlacement.this.update(this);
+                    }
+                };
+                this.afterMoveCallback = (behavior, stageMove, mouseMove) -> {
+                    if ( this.isManaged() ) {
+                        StagesPlacement.this.update(this);
+                    }
+                };
+            }
+            else {
+                this.relocationListener = null;
+                this.afterMoveCallback = null;
+            }
+        }
+
+        /*
+         * Position changes made by StageMoving come as separate x and y changes on every
+         * drag step. They are skipped here and the stage is updated once per relocation,
+         * or once after the move if it is moved by StageMoving itself.
+         */
+        boolean isGeometryChangeDeferred() {
+            return nonNull(this.stageMoving) &&
+                    (this.stageMoving.isMovingNow() || this.stageMoving.relocation().isRelocatingNow());
+        }
+
+        boolean isManaged() {
+            return StagesPlacement.this.placedByStages.get(this.stage) == this;
+        }
+
+        boolean intersects(double x, double y, double right, double bottom) {
+            return x < this.x + this.width && right > this.x && y < this.y + this.height && bottom > this.y;
+        }
+    }
+
+    private static final class ScreenSpace {
+
+        final int index;
+        final double x;
+        final double y;
+        final double width;
+        final double height;
+        final FreeRectangles free;
+        boolean isFragmented;
+
+        ScreenSpace(int index, Screen screen) {
+            this.index = index;
+            this.x = screen.anchor().x();
+            this.y = screen.anchor().y();
+            this.width = screen.oppositeAnchorX() - this.x;
+            this.height = screen.oppositeAnchorY() - this.y;
+            this.free = new FreeRectangles();
+            this.isFragmented = false;
+        }
+
+        boolean intersects(double x, double y, double width, double height) {
+            return x < this.x + this.width && x + width > this.x && y < this.y + this.height && y + height > this.y;
+        }
+    }
+
+    private final Map<Stage, Placed> placedByStages;
+    private final List<ScreenSpace> screens;
+    private final FreeRectangles releasedPieces;
+    private final ChangeListener<Number> geometryListener;
+    private final ChangeListener<Boolean> showingListener;
+    private final Runnable screensListener;
+
+    public StagesPlacement() {
+        this.placedByStages = new IdentityHashMap<>();
+        this.screens = new ArrayList<>();
+        this.releasedPieces = new FreeRectangles();
+
+        this.geometryListener = (property, oldV, newV) -> {
+            Placed placed = this.placedByStages.get((Stage) ((ReadOnlyProperty<?>) property).getBean());
+
+            if ( isNull(placed) || placed.isGeometryChangeDeferred() ) {
+                return;
+            }
+
+            this.update(placed);
+        };
+
+        this.showingListener = (property, wasShowing, isShowing) -> {
+            this.update((Stage) ((ReadOnlyProperty<?>) property).getBean());
+        };
+
+        this.screensListener = this::rebuildScreens;
+
+        this.rebuildScreens();
+        Screens.onChange(this.screensListener);
+    }
+
+    public void manage(StageMoving stageMoving) {
+        this.manage(stageMoving.stage(), stageMoving);
+    }
+
+    public void manage(Stage stage) {
+        this.manage(stage, null);
+    }
+
+    private void manage(Stage stage, StageMoving stageMoving) {
+        if ( this.placedByStages.containsKey(stage) ) {
+            return;
+        }
+
+        Placed placed = new Placed(stage, stageMoving);
+        this.placedByStages.put(stage, placed);
+
+        stage.xProperty().addListener(this.geometryListener);
+        stage.yProperty().addListener(this.geometryListener);
+        stage.widthProperty().addListener(this.geometryListener);
+        stage.heightProperty().addListener(this.geometryListener);
+        stage.showingProperty().addListener(this.showingListener);
+
+        if ( nonNull(stageMoving) ) {
+            stageMoving.relocation().onRelocated(placed.relocationListener);
+            stageMoving.afterMove(placed.afterMoveCallback);
+        }
+
+        this.update(placed);
+    }
+
+    public void unmanage(Stage stage) {
+        Placed placed = this.placedByStages.remove(stage);
+
+        if ( isNull(placed) ) {
+            return;
+        }
+
+        stage.xProperty().removeListener(this.geometryListener);
+        stage.yProperty().removeListener(this.geometryListener);
+        stage.widthProperty().removeListener(this.geometryListener);
+        stage.heightProperty().removeListener(this.geometryListener);
+        stage.showingProperty().removeListener(this.showingListener);
+
+        if ( nonNull(placed.stageMoving) ) {
+            placed.stageMoving.relocation().removeOnRelocated(placed.relocationListener);
+            placed.stageMoving.removeAfterMove(placed.afterMoveCallback);
+        }
+
+        if ( placed.isOccupying ) {
+            placed.isOccupying = false;
+            this.release(placed);
+        }
+    }
+
+    public void unmanageAll() {
+        for ( Stage stage : this.placedByStages.keySet().toArray(new Stage[0]) ) {
+            this.unmanage(stage);
+        }
+    }
+
+    public void destroy() {
+        this.unmanageAll();
+        Screens.removeOnChange(this.screensListener);
+    }
+
+    public boolean isManaged(Stage stage) {
+        return this.placedByStages.containsKey(stage);
+    }
+
+    public int managedCount() {
+        return this.placedByStages.size();
+    }
+
+    public Optional<Anchor> placeFor(double width, double height) {
+        int primaryIndex = Screens.primary().index;
+
+        for ( ScreenSpace screen : this.screens ) {
+            if ( screen.index == primaryIndex ) {
+                Optional<Anchor> anchor = this.placeFor(screen, width, height);
+                if ( anchor.isPresent() ) {
+                    return anchor;
+                }
+            }
+        }
+
+        for ( ScreenSpace screen : this.screens ) {
+            if ( screen.index != primaryIndex ) {
+                Optional<Anchor> anchor = this.placeFor(screen, width, height);
+                if ( anchor.isPresent() ) {
+                    return anchor;
+                }
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    public Optional<Anchor> placeFor(double width, double height, int screenIndex) {
+        for ( ScreenSpace screen : this.screens ) {
+            if ( screen.index == screenIndex ) {
+                return this.placeFor(screen, width, height);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    private Optional<Anchor> placeFor(ScreenSpace screen, double width, double height) {
+        int fit = screen.free.bestFit(width, height);
+
+        if ( fit < 0 && screen.isFragmented ) {
+            this.rebuild(screen);
+            fit = screen.free.bestFit(width, height);
+        }
+
+        if ( fit < 0 ) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Anchor.anchor(screen.free.x(fit), screen.free.y(fit)));
+    }
+
+    private void update(Stage stage) {
+        Placed placed = this.placedByStages.get(stage);
+
+        if ( isNull(placed) ) {
+            return;
+        }
+
+        this.update(placed);
+    }
+
+    private void update(Placed placed) {
+        Stage stage = placed.stage;
+        boolean isShowing = stage.isShowing();
+
+        if ( placed.isOccupying ) {
+            if ( isShowing &&
+                    placed.x == stage.getX() && placed.y == stage.getY() &&
+                    placed.width == stage.getWidth() && placed.height == stage.getHeight() ) {
+                return;
+            }
+
+            placed.isOccupying = false;
+            this.release(placed);
+        }
+
+        if ( ! isShowing ) {
+            return;
+        }
+
+        placed.x = stage.getX();
+        placed.y = stage.getY();
+        placed.width = stage.getWidth();
+        placed.height = stage.getHeight();
+        placed.isOccupying = true;
+
+        for ( ScreenSpace screen : this.screens ) {
+            screen.free.occupy(placed.x, placed.y, placed.width, placed.height);
+        }
+    }
+
+    /*
+     * Frees the area of the placed stage that is not covered by other occupying
+     * stages. Freed pieces are not merged with neighbouring free rectangles, so
+     * the screen is marked as fragmented and rebuilt only if a later placement
+     * does not fit.
+     */
+    private void release(Placed released) {
+        for ( ScreenSpace screen : this.screens ) {
+            if ( ! screen.intersects(released.x, released.y, released.width, released.height) ) {
+                continue;
+            }
+
+            double x = max(released.x, screen.x);
+            double y = max(released.y, screen.y);
+            double right = min(released.x + released.width, screen.x + screen.width);
+            double bottom = min(released.y + released.height, screen.y + screen.height);
+
+            this.releasedPieces.reset(x, y, right - x, bottom - y);
+
+            for ( Placed placed : this.placedByStages.values() ) {
+                if ( placed.isOccupying && placed.intersects(x, y, right, bottom) ) {
+                    this.releasedPieces.occupy(placed.x, placed.y, placed.width, placed.height);
+                }
+            }
+
+            screen.free.addAll(this.releasedPieces);
+            screen.isFragmented = true;
+        }
+    }
+
+    private void rebuild(ScreenSpace screen) {
+        screen.free.reset(screen.x, screen.y, screen.width, screen.height);
+
+        for ( Placed placed : this.placedByStages.values() ) {
+            if ( placed.isOccupying ) {
+                screen.free.occupy(placed.x, placed.y, placed.width, placed.height);
+            }
+        }
+
+        screen.isFragmented = false;
+    }
+
+    private void rebuildScreens() {
+        this.screens.clear();
+
+        for ( Screens.Monitor monitor : Screens.all() ) {
+            ScreenSpace screen = new ScreenSpace(monitor.index, monitor.screenOf(SYSTEM));
+            this.rebuild(screen);
+            this.screens.add(screen);
+        }
+    }
+}
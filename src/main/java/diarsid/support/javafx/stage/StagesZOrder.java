@@ -0,0 +1,136 @@
+package diarsid.support.javafx.stage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.stage.Stage;
+
+import static java.util.Arrays.asList;
+
+import static diarsid.support.javafx.PlatformActions.doOnFxThread;
+
+public class StagesZOrder {
+
+    private final List<Stage> declaredBottomToTop;
+    private final List<Stage> actualBottomToTop;
+    private final ChangeListener<Boolean> onCameToFront;
+    private final AtomicLong toFrontCalls;
+    private final AtomicLong alwaysOnTopCalls;
+    private boolean isRestackScheduled;
+    private boolean isRestacking;
+
+    public StagesZOrder(Stage... bottomToTop) {
+        this(asList(bottomToTop));
+    }
+
+    public StagesZOrder(List<Stage> bottomToTop) {
+        this.declaredBottomToTop = new ArrayList<>();
+        this.actualBottomToTop = new ArrayList<>();
+        this.toFrontCalls = new AtomicLong();
+        this.alwaysOnTopCalls = new AtomicLong();
+        this.isRestackScheduled = false;
+        this.isRestacking = false;
+
+        this.onCameToFront = (property, oldValue, newValue) -> {
+            if ( ! newValue || this.isRestacking ) {
+                return;
+            }
+
+            Stage stage = (Stage) ((ReadOnlyProperty<?>) property).getBean();
+            this.cameToFront(stage);
+            this.restack();
+        };
+
+        this.declare(bottomToTop);
+    }
+
+    public void declare(List<Stage> bottomToTop) {
+        doOnFxThread(() -> {
+            for ( Stage stage : this.declaredBottomToTop ) {
+                stage.focusedProperty().removeListener(this.onCameToFront);
+                stage.showingProperty().removeListener(this.onCameToFront);
+            }
+
+            this.declaredBottomToTop.clear();
+            this.declaredBottomToTop.addAll(bottomToTop);
+            this.actualBottomToTop.retainAll(this.declaredBottomToTop);
+
+            for ( Stage stage : this.declaredBottomToTop ) {
+                stage.focusedProperty().addListener(this.onCameToFront);
+                stage.showingProperty().addListener(this.onCameToFront);
+            }
+
+            this.restack();
+        });
+    }
+
+    public void restack() {
+        doOnFxThread(() -> {
+            if ( this.isRestackScheduled ) {
+                return;
+            }
+
+            this.isRestackScheduled = true;
+            Platform.runLater(this::applyRestack);
+        });
+    }
+
+    public long toFrontCallsCount() {
+        return this.toFrontCalls.get();
+    }
+
+    public long alwaysOnTopCallsCount() {
+        return this.alwaysOnTopCalls.get();
+    }
+
+    private void cameToFront(Stage stage) {
+        this.actualBottomToTop.remove(stage);
+        this.actualBottomToTop.add(stage);
+    }
+
+    private int correctlyOrderedFromBottom() {
+        int ordered = 0;
+        int declaredCount = this.declaredBottomToTop.size();
+
+        for ( Stage stage : this.actualBottomToTop ) {
+            if ( ordered < declaredCount && stage == this.declaredBottomToTop.get(ordered) ) {
+                ordered++;
+            }
+        }
+
+        return ordered;
+    }
+
+    private void applyRestack() {
+        this.isRestackScheduled = false;
+        this.isRestacking = true;
+
+        try {
+            for ( Stage stage : this.declaredBottomToTop ) {
+                if ( stage.isShowing() && ! stage.isAlwaysOnTop() ) {
+                    stage.setAlwaysOnTop(true);
+                    this.alwaysOnTopCalls.incrementAndGet();
+                }
+            }
+
+            int ordered = this.correctlyOrderedFromBottom();
+
+            for ( int i = ordered; i < this.declaredBottomToTop.size(); i++ ) {
+                Stage stage = this.declaredBottomToTop.get(i);
+                if ( ! stage.isShowing() ) {
+                    continue;
+                }
+                stage.toFront();
+                this.toFrontCalls.incrementAndGet();
+                this.cameToFront(stage);
+            }
+        }
+        finally {
+            this.isRestacking = false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package diarsid.support.javafx.stage;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javafx.application.Platform;
+import javafx.event.EventType;
+import javafx.scene.input.MouseEvent;
+import javafx.stage.Stage;
+
+import diarsid.support.javafx.PlatformActions;
+
+import static java.lang.String.format;
+
+import static javafx.scene.input.MouseButton.PRIMARY;
+import static javafx.scene.input.MouseEvent.MOUSE_DRAGGED;
+import static javafx.scene.input.MouseEvent.MOUSE_PRESSED;
+import static javafx.scene.input.MouseEvent.MOUSE_RELEASED;
+
+import static diarsid.support.javafx.stage.StageMoving.ANY_MOVE;
+import static diarsid.support.javafx.stage.StageMoving.MOVE_BY_MOUSE;
+
+/*
+ * Fails if the drag or move() path allocates: the thread allocation counter must not grow
+ * over MOVES moves after a warm-up. Compiled with jdk.management readable by the module,
+ * see pom.xml; run with mvn -P allocation-check test (needs a display or Monocle).
+ */
+public class StageMovingAllocationCheck {
+
+    private static final int MOVES = 100_000;
+    private static final int DRAG_EVENTS = 64;
+    private static final long ALLOWED_BYTES = 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        if ( ! THREADS.isThreadAllocatedMemorySupported() ) {
+            throw new IllegalStateException("thread allocated memory is not supported by this JVM!");
+        }
+
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+
+        PlatformActions.awaitStartup();
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch checked = new CountDownLatch(1);
+
+        Platform.runLater(() -> {
+            try {
+                Stage stage = new Stage();
+                stage.setX(0);
+                stage.setY(0);
+
+                StageMoving stageMoving = new StageMoving(stage);
+                stageMoving.intercept((behavior, stageMove, mouseMove) -> { });
+                stageMoving.intercept((behavior, stageMove, mouseMove) -> { }, MOVE_BY_MOUSE);
+                stageMoving.beforeMove((behavior, stageMove, mouseMove) -> { });
+                stageMoving.afterMove((behavior, stageMove, mouseMove) -> { });
+
+                MouseEvent pressed = mouseEvent(MOUSE_PRESSED, 10, 10);
+                MouseEvent released = mouseEvent(MOUSE_RELEASED, 10, 10);
+                MouseEvent[] dragged = new MouseEvent[DRAG_EVENTS];
+                for ( int i = 0; i < DRAG_EVENTS; i++ ) {
+                    dragged[i] = mouseEvent(MOUSE_DRAGGED, 10 + i, 10 + i);
+                }
+
+                drag(stageMoving, pressed, dragged, released);
+                move(stageMoving);
+
+                checkNoAllocations("drag", () -> drag(stageMoving, pressed, dragged, released));
+                checkNoAllocations("move", () -> move(stageMoving));
+            }
+            catch (Throwable t) {
+                failure.set(t);
+            }
+            finally {
+                checked.countDown();
+            }
+        });
+
+        checked.await();
+        Platform.exit();
+
+        Throwable t = failure.get();
+        if ( t != null ) {
+            throw new AssertionError("StageMoving hot path allocation check failed", t);
+        }
+
+        System.out.println("StageMoving hot path is allocation-free");
+    }
+
+    private static void drag(StageMoving stageMoving, MouseEvent pressed, MouseEvent[] dragged, MouseEvent released) {
+        stageMoving.onMousePressed(pressed);
+        for ( int i = 0; i < MOVES; i++ ) {
+            stageMoving.onMouseDragged(dragged[i % DRAG_EVENTS]);
+        }
+        stageMoving.onMouseReleased(released);
+    }
+
+    private static void move(StageMoving stageMoving) {
+        for ( int i = 0; i < MOVES; i++ ) {
+            stageMoving.move(i % DRAG_EVENTS, i % DRAG_EVENTS, ANY_MOVE);
+        }
+    }
+
+    private static void checkNoAllocations(String name, Runnable moves) {
+        long threadId = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(threadId);
+        moves.run();
+        long after = THREADS.getThreadAllocatedBytes(threadId);
+
+        long allocated = after - before;
+        if ( allocated > ALLOWED_BYTES ) {
+            throw new AssertionError(format(
+                    "%s: %s bytes allocated for %s moves, allowed %s",
+                    name, allocated, MOVES, ALLOWED_BYTES));
+        }
+    }
+
+    private static MouseEvent mouseEvent(EventType<MouseEvent> type, double x, double y) {
+        return new MouseEvent(
+                type,
+                x, y, x, y,
+                PRIMARY, 1,
+                false, false, false, false,
+                true, false, false,
+                false, false, false,
+                null);
+    }
+}